@@ -0,0 +1,52 @@
+#!/bin/sh
+# Runs every benchmark script on jlox and clox, checks that both print the
+# same output and reports how much slower jlox is per script.
+#
+#   bench/compare.sh [script.lox ...]
+#
+# Exits with 1 if any script's output differs between the implementations.
+
+set -e
+
+root=$(cd "$(dirname "$0")/.." && pwd)
+output=$(mktemp -d)
+trap 'rm -rf "$output"' EXIT
+
+make -s -C "$root/clox"
+mvn -B -q -f "$root/jlox/pom.xml" package
+clox="$root/clox/build/bin/clox"
+jlox="java -jar $root/jlox/target/jlox-1.0.jar"
+
+if [ $# -eq 0 ]; then
+    set -- "$root"/bench/*.lox
+fi
+
+# Prints the wall time of a command in milliseconds, its output goes to $2.
+elapsed() {
+    start=$(date +%s%N)
+    $1 "$3" > "$2" 2>&1 || true
+    end=$(date +%s%N)
+    echo $(( (end - start) / 1000000 ))
+}
+
+status=0
+printf '%-20s %10s %10s %8s  %s\n' script "jlox ms" "clox ms" ratio output
+for script in "$@"; do
+    name=$(basename "$script" .lox)
+    jlox_ms=$(elapsed "$jlox" "$output/$name.jlox" "$script")
+    clox_ms=$(elapsed "$clox" "$output/$name.clox" "$script")
+    ratio=$(awk -v j="$jlox_ms" -v c="$clox_ms" 'BEGIN { printf "%.2f", (c > 0 ? j / c : 0) }')
+
+    if cmp -s "$output/$name.jlox" "$output/$name.clox"; then
+        result=same
+    else
+        result=DIFFERENT
+        status=1
+    fi
+    printf '%-20s %10s %10s %7sx  %s\n' "$name" "$jlox_ms" "$clox_ms" "$ratio" "$result"
+    if [ $result = DIFFERENT ]; then
+        diff "$output/$name.jlox" "$output/$name.clox" | head -n 5 | sed 's/^/    /'
+    fi
+done
+
+exit $status
@@ -0,0 +1,83 @@
+package jlox;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalParserBenchmark {
+    @Param({"1000", "4000", "16000", "64000"})
+    public int declarations;
+
+    private IncrementalParser parser;
+    private int[] offsets;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var source = new StringBuilder();
+        var functions = new ArrayList<Integer>();
+        for (int i = 0; i < declarations; i++) {
+            source.append("fun f").append(i).append("(a) {\n")
+                    .append("  var x = a * ");
+            functions.add(source.length());
+            source.append(i).append(";\n")
+                    .append("  if (x > 10) { return x; }\n")
+                    .append("  return a;\n")
+                    .append("}\n");
+        }
+        parser = new IncrementalParser(source.toString());
+
+        Collections.shuffle(functions, new Random(42));
+        offsets = functions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Every benchmark inserts text right after 'a * ' in some function and then
+    // removes it again, so the buffer is the same at the end of each invocation.
+    @Benchmark
+    public IncrementalParser edit() {
+        return insertAndRemove("7");
+    }
+
+    @Benchmark
+    public IncrementalParser newlineEdit() {
+        return insertAndRemove("\n");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Stmt> fullParse() {
+        return new Parser(new Scanner(parser.source()).scanTokens()).parse();
+    }
+
+    private IncrementalParser insertAndRemove(String text) {
+        int offset = offsets[next];
+        next = (next + 1) % offsets.length;
+        parser.edit(offset, 0, text);
+        parser.edit(offset, text.length(), "");
+        return parser;
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() throws IOException {
+        var expected = new Parser(new Scanner(parser.source()).scanTokens()).parse();
+        if (!Arrays.equals(serialize(expected), serialize(parser.statements()))) {
+            throw new IllegalStateException("Incremental parse differs from a full parse");
+        }
+    }
+
+    private static byte[] serialize(List<Stmt> statements) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            new AstWriter(out, new Interpreter()).write(statements);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,18 @@
+package jlox;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterpreterBenchmark {
+    @Benchmark
+    public Interpreter interpret(Workload workload) {
+        workload.interpreter.interpret(workload.statements);
+        return workload.interpreter;
+    }
+}
@@ -0,0 +1,138 @@
+package jlox;
+
+import java.util.*;
+
+// Just enough JSON for the benchmark result files: objects, strings and numbers.
+class Json {
+    private final String text;
+    private int current = 0;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    static Object parse(String text) {
+        var json = new Json(text);
+        var value = json.value();
+        json.skipWhitespace();
+        if (json.current != text.length()) {
+            throw json.error("Trailing characters");
+        }
+        return value;
+    }
+
+    static String write(Object value) {
+        var builder = new StringBuilder();
+        write(value, builder, 0);
+        return builder.append('\n').toString();
+    }
+
+    private static void write(Object value, StringBuilder builder, int depth) {
+        if (value instanceof Map) {
+            var map = (Map<?, ?>) value;
+            builder.append('{');
+            var separator = "\n";
+            for (var entry : map.entrySet()) {
+                builder.append(separator).append("  ".repeat(depth + 1));
+                write(entry.getKey(), builder, depth + 1);
+                builder.append(": ");
+                write(entry.getValue(), builder, depth + 1);
+                separator = ",\n";
+            }
+            builder.append('\n').append("  ".repeat(depth)).append('}');
+        } else if (value instanceof String) {
+            builder.append('"').append(((String) value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private Object value() {
+        skipWhitespace();
+        if (peek() == '{') {
+            return object();
+        }
+        if (peek() == '"') {
+            return string();
+        }
+        return number();
+    }
+
+    private Map<String, Object> object() {
+        current++;
+        LinkedHashMap<String, Object> object = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            current++;
+            return object;
+        }
+        do {
+            skipWhitespace();
+            var key = string();
+            skipWhitespace();
+            expect(':');
+            object.put(key, value());
+            skipWhitespace();
+        } while (match(','));
+        expect('}');
+        return object;
+    }
+
+    private String string() {
+        expect('"');
+        var builder = new StringBuilder();
+        while (peek() != '"') {
+            char c = advance();
+            builder.append(c == '\\' ? advance() : c);
+        }
+        current++;
+        return builder.toString();
+    }
+
+    private Double number() {
+        int start = current;
+        while ("+-.eE0123456789".indexOf(peek()) >= 0) {
+            current++;
+        }
+        try {
+            return Double.valueOf(text.substring(start, current));
+        } catch (NumberFormatException e) {
+            throw error("Expected a value");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (Character.isWhitespace(peek())) {
+            current++;
+        }
+    }
+
+    private char peek() {
+        return current < text.length() ? text.charAt(current) : '\0';
+    }
+
+    private char advance() {
+        if (current >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(current++);
+    }
+
+    private boolean match(char expected) {
+        if (peek() != expected) {
+            return false;
+        }
+        current++;
+        return true;
+    }
+
+    private void expect(char expected) {
+        if (!match(expected)) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + current);
+    }
+}
@@ -0,0 +1,100 @@
+package jlox;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+// Counts the operations each .lox script in a directory performs with a
+// CountingInterpreter and checks them against upper bounds from a budget file.
+// The counts are deterministic, so unlike ScriptBenchmark this can gate CI:
+//
+//   java -cp target/benchmarks.jar jlox.OperationBudget ../../bench --budget ../../bench/operations.json
+//
+// After an optimization lowers the counts, write a tighter budget with --output.
+public class OperationBudget {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            usage();
+        }
+        Path output = null;
+        Path budget = null;
+        for (int i = 1; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--output": output = Path.of(args[i + 1]); break;
+                case "--budget": budget = Path.of(args[i + 1]); break;
+                default: usage();
+            }
+        }
+
+        var counts = count(Path.of(args[0]));
+        var json = Json.write(counts);
+        if (output != null) {
+            Files.writeString(output, json);
+        } else if (budget == null) {
+            System.out.print(json);
+        }
+
+        System.exit(budget != null ? check(counts, budget) : 0);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: OperationBudget directory [--output file] [--budget file]");
+        System.exit(69);
+    }
+
+    private static Map<String, Object> count(Path directory) throws IOException {
+        List<Path> scripts;
+        try (var files = Files.list(directory)) {
+            scripts = files.filter(file -> file.toString().endsWith(".lox"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        var stdout = System.out;
+        LinkedHashMap<String, Object> counts = new LinkedHashMap<>();
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            for (var script : scripts) {
+                var interpreter = new CountingInterpreter();
+                var source = Files.readString(script, Charset.defaultCharset());
+                if (!Lox.runScript(interpreter, source, script.toAbsolutePath().getParent())) {
+                    throw new IllegalStateException(script + " failed");
+                }
+                counts.put(script.getFileName().toString().replaceFirst("\\.lox$", ""), interpreter.counts());
+            }
+        } finally {
+            System.setOut(stdout);
+        }
+        return counts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int check(Map<String, Object> counts, Path budget) throws IOException {
+        var budgets = (Map<String, Object>) Json.parse(Files.readString(budget));
+
+        boolean exceeded = false;
+        System.err.printf("%-20s %-18s %14s %14s%n", "script", "count", "budget", "actual");
+        for (var script : counts.entrySet()) {
+            var limits = (Map<String, Object>) budgets.get(script.getKey());
+            if (limits == null) {
+                System.err.printf("%-20s (no budget)%n", script.getKey());
+                continue;
+            }
+
+            for (var count : ((Map<String, Long>) script.getValue()).entrySet()) {
+                var limit = (Double) limits.get(count.getKey());
+                if (limit == null) {
+                    continue;
+                }
+                boolean over = count.getValue() > limit;
+                exceeded |= over;
+                System.err.printf("%-20s %-18s %14.0f %14d%s%n", script.getKey(), count.getKey(), limit,
+                        count.getValue(), over ? "  OVER BUDGET" : count.getValue() < limit ? "  under" : "");
+            }
+        }
+
+        return exceeded ? 1 : 0;
+    }
+}
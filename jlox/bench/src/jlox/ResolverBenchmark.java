@@ -0,0 +1,18 @@
+package jlox;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolverBenchmark {
+    @Benchmark
+    public Interpreter resolve(Workload workload) {
+        new Resolver(workload.interpreter).resolve(workload.statements);
+        return workload.interpreter;
+    }
+}
@@ -0,0 +1,18 @@
+package jlox;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScannerBenchmark {
+    @Benchmark
+    public List<Token> scanTokens(Workload workload) {
+        return new Scanner(workload.source).scanTokens();
+    }
+}
@@ -0,0 +1,173 @@
+package jlox;
+
+import com.sun.management.ThreadMXBean;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+// Runs every .lox script in a directory through Lox in one JVM, records wall
+// time, allocated bytes and garbage collections per iteration and optionally
+// compares them against a baseline written by an earlier run.
+//
+//   java -cp target/benchmarks.jar jlox.ScriptBenchmark ../../bench \
+//       --iterations 10 --output results.json --baseline baseline.json --threshold 0.1
+public class ScriptBenchmark {
+    private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final Path directory;
+    private int warmup = 3;
+    private int iterations = 10;
+    private double threshold = 0.10;
+    private Path output = null;
+    private Path baseline = null;
+
+    private ScriptBenchmark(Path directory) {
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            usage();
+        }
+        var benchmark = new ScriptBenchmark(Path.of(args[0]));
+        for (int i = 1; i < args.length; i += 2) {
+            var value = args[i + 1];
+            switch (args[i]) {
+                case "--warmup": benchmark.warmup = Integer.parseInt(value); break;
+                case "--iterations": benchmark.iterations = Integer.parseInt(value); break;
+                case "--threshold": benchmark.threshold = Double.parseDouble(value); break;
+                case "--output": benchmark.output = Path.of(value); break;
+                case "--baseline": benchmark.baseline = Path.of(value); break;
+                default: usage();
+            }
+        }
+
+        System.exit(benchmark.run());
+    }
+
+    private static void usage() {
+        System.err.println("Usage: ScriptBenchmark directory [--warmup n] [--iterations n]"
+                + " [--output file] [--baseline file] [--threshold fraction]");
+        System.exit(69);
+    }
+
+    private int run() throws IOException {
+        List<Path> scripts;
+        try (var files = Files.list(directory)) {
+            scripts = files.filter(file -> file.toString().endsWith(".lox"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        LinkedHashMap<String, Object> results = new LinkedHashMap<>();
+        for (var script : scripts) {
+            var name = script.getFileName().toString().replaceFirst("\\.lox$", "");
+            System.err.println("Running " + name);
+            results.put(name, measure(script));
+        }
+
+        LinkedHashMap<String, Object> report = new LinkedHashMap<>();
+        report.put("iterations", (double) iterations);
+        report.put("scripts", results);
+        var json = Json.write(report);
+        if (output != null) {
+            Files.writeString(output, json);
+        } else {
+            System.out.print(json);
+        }
+
+        return baseline != null ? compare(results) : 0;
+    }
+
+    private Map<String, Object> measure(Path script) throws IOException {
+        var source = Files.readString(script, Charset.defaultCharset());
+        var directory = script.toAbsolutePath().getParent();
+        long thread = Thread.currentThread().getId();
+
+        var stdout = System.out;
+        var wallTimes = new long[iterations];
+        long allocated = 0;
+        long gcCount = 0;
+        long gcMillis = 0;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            for (int i = 0; i < warmup; i++) {
+                runScript(script, source, directory);
+            }
+
+            for (int i = 0; i < iterations; i++) {
+                long gcCountBefore = gcCount();
+                long gcMillisBefore = gcMillis();
+                long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+
+                runScript(script, source, directory);
+
+                wallTimes[i] = System.nanoTime() - start;
+                allocated += threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+                gcCount += gcCount() - gcCountBefore;
+                gcMillis += gcMillis() - gcMillisBefore;
+            }
+        } finally {
+            System.setOut(stdout);
+        }
+
+        Arrays.sort(wallTimes);
+        LinkedHashMap<String, Object> result = new LinkedHashMap<>();
+        result.put("wallNanosMedian", (double) wallTimes[iterations / 2]);
+        result.put("wallNanosMin", (double) wallTimes[0]);
+        result.put("allocatedBytes", (double) (allocated / iterations));
+        result.put("gcCount", (double) gcCount);
+        result.put("gcMillis", (double) gcMillis);
+        return result;
+    }
+
+    private static void runScript(Path script, String source, Path directory) {
+        if (!Lox.runScript(source, directory)) {
+            throw new IllegalStateException(script + " failed");
+        }
+    }
+
+    private static long gcCount() {
+        return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    // Fails on median wall time or allocated bytes above baseline * (1 + threshold).
+    @SuppressWarnings("unchecked")
+    private int compare(Map<String, Object> results) throws IOException {
+        var stored = (Map<String, Object>) Json.parse(Files.readString(baseline));
+        var baselineScripts = (Map<String, Object>) stored.get("scripts");
+
+        boolean regressed = false;
+        System.err.printf("%-20s %-16s %14s %14s %8s%n", "script", "metric", "baseline", "current", "change");
+        for (var entry : results.entrySet()) {
+            var previous = (Map<String, Object>) baselineScripts.get(entry.getKey());
+            if (previous == null) {
+                System.err.printf("%-20s (no baseline)%n", entry.getKey());
+                continue;
+            }
+
+            var current = (Map<String, Object>) entry.getValue();
+            for (var metric : List.of("wallNanosMedian", "allocatedBytes")) {
+                double before = (Double) previous.get(metric);
+                double after = (Double) current.get(metric);
+                double change = before == 0 ? 0 : (after - before) / before;
+                boolean failed = change > threshold;
+                regressed |= failed;
+                System.err.printf("%-20s %-16s %14.0f %14.0f %+7.1f%%%s%n",
+                        entry.getKey(), metric, before, after, change * 100, failed ? "  REGRESSION" : "");
+            }
+        }
+
+        return regressed ? 1 : 0;
+    }
+}
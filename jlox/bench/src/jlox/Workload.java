@@ -0,0 +1,45 @@
+package jlox;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+@State(Scope.Benchmark)
+public class Workload {
+    @Param({"fib", "binary_trees", "method_call", "instantiation", "string_equality", "zoo", "properties"})
+    public String script;
+
+    String source;
+    List<Token> tokens;
+    List<Stmt> statements;
+    Interpreter interpreter;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        source = load(script);
+        tokens = new Scanner(source).scanTokens();
+        statements = new Parser(tokens).parse();
+        interpreter = new Interpreter();
+        new Resolver(interpreter).resolve(statements);
+
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    static String load(String script) throws IOException {
+        try (var stream = Workload.class.getResourceAsStream("/scripts/" + script + ".lox")) {
+            if (stream == null) {
+                throw new FileNotFoundException("No benchmark script " + script);
+            }
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
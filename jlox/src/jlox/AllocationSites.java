@@ -0,0 +1,91 @@
+package jlox;
+
+import java.io.*;
+import java.util.*;
+
+// Counts the runtime objects the interpreter allocates per syntax tree node, so
+// the constructs driving garbage collection can be found without an agent.
+// Doubles and strings are the boxed results of arithmetic and concatenation,
+// a JIT compiler may still eliminate some of them.
+class AllocationSites {
+    enum Kind { INSTANCE, ENVIRONMENT, FUNCTION, DOUBLE, STRING }
+
+    private final Map<Object, long[]> sites = new IdentityHashMap<>();
+
+    public void record(Object node, Kind kind) {
+        record(node, kind, 1);
+    }
+
+    public void record(Object node, Kind kind, int count) {
+        sites.computeIfAbsent(node, ignored -> new long[Kind.values().length])[kind.ordinal()] += count;
+    }
+
+    // A call allocates the callee's environment, a class call also an instance
+    // and the initializer bound to it.
+    public void recordCall(Expr.Call expr, LoxCallable function) {
+        if (function instanceof LoxFunction) {
+            record(expr, Kind.ENVIRONMENT);
+        } else if (function instanceof LoxClass) {
+            record(expr, Kind.INSTANCE);
+            if (((LoxClass) function).findMethod("init") != null) {
+                record(expr, Kind.FUNCTION);
+                record(expr, Kind.ENVIRONMENT, 2);
+            }
+        }
+    }
+
+    public void recordValue(Expr expr, Object value) {
+        if (value instanceof Double) {
+            record(expr, Kind.DOUBLE);
+        } else if (value instanceof String) {
+            record(expr, Kind.STRING);
+        }
+    }
+
+    public void print(PrintStream out, int limit) {
+        ArrayList<Map.Entry<Object, long[]>> sorted = new ArrayList<>(sites.entrySet());
+        sorted.sort(Comparator.comparingLong((Map.Entry<Object, long[]> site) -> total(site.getValue())).reversed());
+
+        out.printf("%-24s %12s %12s %12s %12s %12s %12s%n",
+                "site", "total", "instances", "environments", "functions", "doubles", "strings");
+        for (var site : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            var counts = site.getValue();
+            out.printf("%-24s %12d %12d %12d %12d %12d %12d%n",
+                    describe(site.getKey()),
+                    total(counts),
+                    counts[Kind.INSTANCE.ordinal()],
+                    counts[Kind.ENVIRONMENT.ordinal()],
+                    counts[Kind.FUNCTION.ordinal()],
+                    counts[Kind.DOUBLE.ordinal()],
+                    counts[Kind.STRING.ordinal()]);
+        }
+    }
+
+    public long total() {
+        return sites.values().stream().mapToLong(AllocationSites::total).sum();
+    }
+
+    private static long total(long[] counts) {
+        return Arrays.stream(counts).sum();
+    }
+
+    private static String describe(Object node) {
+        var name = node.getClass().getSimpleName().toLowerCase();
+        if (node instanceof Expr.Call && ((Expr.Call) node).callee instanceof Expr.Variable) {
+            name += " " + ((Expr.Variable) ((Expr.Call) node).callee).name.lexeme;
+        } else if (node instanceof Expr.Call && ((Expr.Call) node).callee instanceof Expr.Get) {
+            name += " " + ((Expr.Get) ((Expr.Call) node).callee).name.lexeme;
+        } else if (node instanceof Expr.Get) {
+            name += " " + ((Expr.Get) node).name.lexeme;
+        } else if (node instanceof Expr.Binary) {
+            name += " " + ((Expr.Binary) node).operator.lexeme;
+        } else if (node instanceof Stmt.Function) {
+            name += " " + ((Stmt.Function) node).name.lexeme;
+        } else if (node instanceof Stmt.Class) {
+            name += " " + ((Stmt.Class) node).name.lexeme;
+        }
+
+        var line = node instanceof Expr ? SourceLine.of((Expr) node) : SourceLine.of((Stmt) node);
+        return name + " (line " + line + ")";
+    }
+}
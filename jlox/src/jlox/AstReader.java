@@ -0,0 +1,191 @@
+package jlox;
+
+import java.io.*;
+import java.util.*;
+
+import static jlox.AstWriter.*;
+
+class AstReader {
+    private final DataInputStream in;
+    private final ArrayList<Expr> resolved = new ArrayList<>();
+    private final ArrayList<int[]> coordinates = new ArrayList<>();
+
+    AstReader(DataInputStream in) {
+        this.in = in;
+    }
+
+    public List<Stmt> read() throws IOException {
+        return readStatements();
+    }
+
+    // Slot coordinates are only handed to the interpreter once the whole tree
+    // has been read, so a corrupt entry leaves no trace behind.
+    public void resolve(Interpreter interpreter) {
+        for (int i = 0; i < resolved.size(); i++) {
+            interpreter.resolve(resolved.get(i), coordinates.get(i)[0], coordinates.get(i)[1]);
+        }
+    }
+
+    private ArrayList<Stmt> readStatements() throws IOException {
+        int size = readSize();
+        ArrayList<Stmt> statements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            statements.add(readStatement());
+        }
+        return statements;
+    }
+
+    private ArrayList<Expr> readExpressions() throws IOException {
+        int size = readSize();
+        ArrayList<Expr> expressions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            expressions.add(readExpression());
+        }
+        return expressions;
+    }
+
+    private ArrayList<Token> readTokens() throws IOException {
+        int size = readSize();
+        ArrayList<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(readToken());
+        }
+        return tokens;
+    }
+
+    private int readSize() throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > in.available()) {
+            throw new IOException("Corrupt list size " + size);
+        }
+        return size;
+    }
+
+    private Token readToken() throws IOException {
+        TokenType type;
+        try {
+            type = TokenType.valueOf(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown token type", e);
+        }
+        var lexeme = in.readUTF();
+        int lineNo = in.readInt();
+        return new Token(type, lexeme, readValue(), lineNo);
+    }
+
+    private Object readValue() throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NIL_VALUE: return null;
+            case TRUE_VALUE: return true;
+            case FALSE_VALUE: return false;
+            case NUMBER_VALUE: return in.readDouble();
+            case STRING_VALUE: return in.readUTF();
+        }
+
+        throw new IOException("Corrupt value tag " + tag);
+    }
+
+    private <T extends Expr> T readCoordinates(T expr) throws IOException {
+        int distance = in.readInt();
+        if (distance >= 0) {
+            resolved.add(expr);
+            coordinates.add(new int[]{distance, in.readInt()});
+        }
+        return expr;
+    }
+
+    private Expr.Variable readVariable() throws IOException {
+        var expr = readExpression();
+        if (expr != null && !(expr instanceof Expr.Variable)) {
+            throw new IOException("Corrupt superclass");
+        }
+        return (Expr.Variable) expr;
+    }
+
+    private Expr readExpression() throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case ASSIGN:
+                return readCoordinates(new Expr.Assign(readToken(), readExpression()));
+            case LOGICAL:
+                return new Expr.Logical(readExpression(), readToken(), readExpression());
+            case BINARY:
+                return new Expr.Binary(readExpression(), readToken(), readExpression());
+            case UNARY:
+                return new Expr.Unary(readToken(), readExpression());
+            case CALL:
+                return new Expr.Call(readExpression(), readToken(), readExpressions());
+            case GET:
+                return new Expr.Get(readExpression(), readToken());
+            case SET:
+                return new Expr.Set(readExpression(), readToken(), readExpression());
+            case INDEX:
+                return new Expr.Index(readExpression(), readToken(), readExpression());
+            case SET_INDEX:
+                return new Expr.SetIndex(readExpression(), readToken(), readExpression(), readExpression());
+            case SUPER:
+                return readCoordinates(new Expr.Super(readToken(), readToken()));
+            case GROUPING:
+                return new Expr.Grouping(readExpression());
+            case THIS:
+                return readCoordinates(new Expr.This(readToken()));
+            case LITERAL:
+                return new Expr.Literal(readValue());
+            case VARIABLE:
+                return readCoordinates(new Expr.Variable(readToken()));
+        }
+
+        throw new IOException("Corrupt expression tag " + tag);
+    }
+
+    private Stmt readStatement() throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case BLOCK:
+                return new Stmt.Block(readStatements());
+            case EXPRESSION:
+                return new Stmt.Expression(readExpression());
+            case IF:
+                return new Stmt.If(readExpression(), readStatement(), readStatement());
+            case WHILE:
+                return new Stmt.While(readExpression(), readStatement());
+            case PRINT:
+                return new Stmt.Print(readExpression());
+            case RETURN:
+                return new Stmt.Return(readToken(), readExpression());
+            case VAR:
+                return new Stmt.Var(readToken(), readExpression());
+            case FUNCTION:
+                return readFunction();
+            case CLASS:
+                return readClass();
+            case IMPORT:
+                return new Stmt.Import(readToken(), readToken());
+        }
+
+        throw new IOException("Corrupt statement tag " + tag);
+    }
+
+    private Stmt.Function readFunction() throws IOException {
+        return new Stmt.Function(readToken(), readTokens(), readStatements());
+    }
+
+    private Stmt.Class readClass() throws IOException {
+        var name = readToken();
+        var superclass = readVariable();
+        int size = readSize();
+        ArrayList<Stmt.Function> methods = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (in.readByte() != FUNCTION) {
+                throw new IOException("Corrupt method");
+            }
+            methods.add(readFunction());
+        }
+        return new Stmt.Class(name, superclass, methods);
+    }
+}
@@ -0,0 +1,354 @@
+package jlox;
+
+import java.io.*;
+import java.util.*;
+
+class AstWriter implements ExprVisitor<Void>, StmtVisitor<Void> {
+    static final byte NULL = 0;
+
+    static final byte ASSIGN = 1;
+    static final byte LOGICAL = 2;
+    static final byte BINARY = 3;
+    static final byte UNARY = 4;
+    static final byte CALL = 5;
+    static final byte GET = 6;
+    static final byte SET = 7;
+    static final byte SUPER = 8;
+    static final byte GROUPING = 9;
+    static final byte THIS = 10;
+    static final byte LITERAL = 11;
+    static final byte VARIABLE = 12;
+    static final byte INDEX = 13;
+    static final byte SET_INDEX = 14;
+
+    static final byte BLOCK = 1;
+    static final byte EXPRESSION = 2;
+    static final byte IF = 3;
+    static final byte WHILE = 4;
+    static final byte PRINT = 5;
+    static final byte RETURN = 6;
+    static final byte VAR = 7;
+    static final byte FUNCTION = 8;
+    static final byte CLASS = 9;
+    static final byte IMPORT = 10;
+
+    static final byte NIL_VALUE = 0;
+    static final byte TRUE_VALUE = 1;
+    static final byte FALSE_VALUE = 2;
+    static final byte NUMBER_VALUE = 3;
+    static final byte STRING_VALUE = 4;
+
+    private final DataOutputStream out;
+    private final Interpreter interpreter;
+
+    AstWriter(DataOutputStream out, Interpreter interpreter) {
+        this.out = out;
+        this.interpreter = interpreter;
+    }
+
+    public void write(List<Stmt> statements) throws IOException {
+        try {
+            writeStatements(statements);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeStatements(List<? extends Stmt> statements) {
+        writeInt(statements.size());
+        for (var statement : statements) {
+            write(statement);
+        }
+    }
+
+    private void write(Stmt statement) {
+        if (statement == null) {
+            writeByte(NULL);
+        } else {
+            statement.accept(this);
+        }
+    }
+
+    private void writeExpressions(List<Expr> expressions) {
+        writeInt(expressions.size());
+        for (var expression : expressions) {
+            write(expression);
+        }
+    }
+
+    private void write(Expr expression) {
+        if (expression == null) {
+            writeByte(NULL);
+        } else {
+            expression.accept(this);
+        }
+    }
+
+    private void writeTokens(List<Token> tokens) {
+        writeInt(tokens.size());
+        for (var token : tokens) {
+            write(token);
+        }
+    }
+
+    private void write(Token token) {
+        // By name, so adding a token type doesn't silently remap older entries.
+        writeString(token.type.name());
+        writeString(token.lexeme);
+        writeInt(token.line());
+        writeValue(token.literal);
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            writeByte(NIL_VALUE);
+        } else if (value.equals(true)) {
+            writeByte(TRUE_VALUE);
+        } else if (value.equals(false)) {
+            writeByte(FALSE_VALUE);
+        } else if (value instanceof Double) {
+            writeByte(NUMBER_VALUE);
+            try {
+                out.writeDouble((Double) value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            writeByte(STRING_VALUE);
+            writeString((String) value);
+        }
+    }
+
+    private void writeCoordinates(Expr expr) {
+        var coordinates = interpreter.coordinates(expr);
+        if (coordinates == null) {
+            writeInt(-1);
+        } else {
+            writeInt(coordinates.distance);
+            writeInt(coordinates.index);
+        }
+    }
+
+    private void writeByte(int value) {
+        try {
+            out.writeByte(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeInt(int value) {
+        try {
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeString(String value) {
+        try {
+            out.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Void visit(Expr.Assign expr) {
+        writeByte(ASSIGN);
+        write(expr.name);
+        write(expr.value);
+        writeCoordinates(expr);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Logical expr) {
+        writeByte(LOGICAL);
+        write(expr.left);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Binary expr) {
+        writeByte(BINARY);
+        write(expr.left);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Unary expr) {
+        writeByte(UNARY);
+        write(expr.operator);
+        write(expr.operand);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Call expr) {
+        writeByte(CALL);
+        write(expr.callee);
+        write(expr.parens);
+        writeExpressions(expr.arguments);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Get expr) {
+        writeByte(GET);
+        write(expr.object);
+        write(expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Set expr) {
+        writeByte(SET);
+        write(expr.object);
+        write(expr.name);
+        write(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Index expr) {
+        writeByte(INDEX);
+        write(expr.object);
+        write(expr.bracket);
+        write(expr.index);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.SetIndex expr) {
+        writeByte(SET_INDEX);
+        write(expr.object);
+        write(expr.bracket);
+        write(expr.index);
+        write(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Super expr) {
+        writeByte(SUPER);
+        write(expr.keyword);
+        write(expr.method);
+        writeCoordinates(expr);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Grouping expr) {
+        writeByte(GROUPING);
+        write(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.This expr) {
+        writeByte(THIS);
+        write(expr.keyword);
+        writeCoordinates(expr);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Literal expr) {
+        writeByte(LITERAL);
+        writeValue(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Variable expr) {
+        writeByte(VARIABLE);
+        write(expr.name);
+        writeCoordinates(expr);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Block stmt) {
+        writeByte(BLOCK);
+        writeStatements(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Expression stmt) {
+        writeByte(EXPRESSION);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.If stmt) {
+        writeByte(IF);
+        write(stmt.condition);
+        write(stmt.thenBranch);
+        write(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.While stmt) {
+        writeByte(WHILE);
+        write(stmt.condition);
+        write(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Print stmt) {
+        writeByte(PRINT);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Return stmt) {
+        writeByte(RETURN);
+        write(stmt.keyword);
+        write(stmt.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Var stmt) {
+        writeByte(VAR);
+        write(stmt.name);
+        write(stmt.initializer);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Function stmt) {
+        writeByte(FUNCTION);
+        write(stmt.name);
+        writeTokens(stmt.parameters);
+        writeStatements(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Class stmt) {
+        writeByte(CLASS);
+        write(stmt.name);
+        write(stmt.superclass);
+        writeStatements(stmt.methods);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Import stmt) {
+        writeByte(IMPORT);
+        write(stmt.keyword);
+        write(stmt.path);
+        return null;
+    }
+}
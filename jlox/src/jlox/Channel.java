@@ -0,0 +1,108 @@
+package jlox;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+// A bounded queue between threads, created by channel(capacity). send blocks
+// while the channel is full, receive while it is empty. After close, sends
+// fail and receive returns nil once the remaining values are taken.
+class Channel implements LoxObject {
+    private final ArrayDeque<Object> values = new ArrayDeque<>();
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private boolean closed = false;
+
+    // ArrayDeque can't hold null, which is nil.
+    private static final Object NIL = new Object();
+
+    Channel(int capacity) {
+        this.capacity = capacity;
+    }
+
+    static class Constructor implements LoxCallable {
+        @Override
+        public Object call(Interpreter interpreter, List<Object> arguments) {
+            var capacity = arguments.get(0);
+            if (!(capacity instanceof Double) || (Double) capacity < 1 || (Double) capacity % 1 != 0) {
+                throw new RuntimeError(null, "Channel capacity must be a positive integer");
+            }
+            return new Channel(((Double) capacity).intValue());
+        }
+
+        @Override
+        public int arity() {
+            return 1;
+        }
+
+        @Override
+        public String toString() {
+            return "<native fn>";
+        }
+    }
+
+    @Override
+    public Object get(Token name) {
+        switch (name.lexeme) {
+            case "send": return new NativeFunction(1, arguments -> send(name, arguments.get(0)));
+            case "receive": return new NativeFunction(0, arguments -> receive(name));
+            case "close": return new NativeFunction(0, arguments -> close());
+            default: throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'");
+        }
+    }
+
+    private Object send(Token name, Object value) {
+        lock.lock();
+        try {
+            while (values.size() == capacity && !closed) {
+                notFull.await();
+            }
+            if (closed) {
+                throw new RuntimeError(name, "Can't send on a closed channel");
+            }
+            values.add(value != null ? value : NIL);
+            notEmpty.signal();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeError(name, "Interrupted while sending");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Object receive(Token name) {
+        lock.lock();
+        try {
+            while (values.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+            var value = values.poll();
+            notFull.signal();
+            return value == NIL ? null : value;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeError(name, "Interrupted while receiving");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Object close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+            notEmpty.signalAll();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<channel>";
+    }
+}
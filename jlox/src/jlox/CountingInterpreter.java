@@ -0,0 +1,186 @@
+package jlox;
+
+import java.io.*;
+import java.util.*;
+
+// An interpreter that counts the work it does: every evaluated expression and
+// executed statement, calls, property accesses and allocations. The counts only
+// depend on the script, so unlike timings they can be checked against fixed
+// upper bounds in CI. Counting lives in a subclass so the plain interpreter
+// does not pay for it.
+class CountingInterpreter extends Interpreter {
+    long nodes = 0;
+    long calls = 0;
+    long propertyAccesses = 0;
+    private final AllocationSites allocations = trackAllocations();
+
+    public long allocations() {
+        return allocations.total();
+    }
+
+    public Map<String, Long> counts() {
+        LinkedHashMap<String, Long> counts = new LinkedHashMap<>();
+        counts.put("nodes", nodes);
+        counts.put("calls", calls);
+        counts.put("propertyAccesses", propertyAccesses);
+        counts.put("allocations", allocations());
+        return counts;
+    }
+
+    public void print(PrintStream out) {
+        counts().forEach((name, count) -> out.println(name + ": " + count));
+    }
+
+    @Override
+    Object call(LoxCallable function, List<Object> arguments) {
+        calls++;
+        return super.call(function, arguments);
+    }
+
+    @Override
+    public Object visit(Expr.Assign expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Logical expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Binary expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Unary expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Call expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Get expr) {
+        nodes++;
+        propertyAccesses++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Set expr) {
+        nodes++;
+        propertyAccesses++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Index expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.SetIndex expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Super expr) {
+        nodes++;
+        propertyAccesses++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Grouping expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.This expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Literal expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Object visit(Expr.Variable expr) {
+        nodes++;
+        return super.visit(expr);
+    }
+
+    @Override
+    public Void visit(Stmt.Block stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.Expression stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.If stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.While stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.Print stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.Return stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.Var stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.Function stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.Class stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(Stmt.Import stmt) {
+        nodes++;
+        return super.visit(stmt);
+    }
+}
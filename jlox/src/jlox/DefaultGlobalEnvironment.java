@@ -0,0 +1,130 @@
+package jlox;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Globals in a plain map until share is called, after that any number of
+// interpreter threads can use them, for example a library loaded once and then
+// called from many threads. Shared globals keep each variable as a binding in a
+// concurrent map, so reads take no lock, a definition publishes its binding
+// safely and assigning a variable writes its binding atomically.
+//
+// Functions and classes are rarely reassigned, their bindings hold the value
+// in a final field and reading them needs no synchronization beyond the map
+// lookup. Assigning one replaces its binding.
+class DefaultGlobalEnvironment extends GlobalEnvironment {
+    private HashMap<String, Object> values = new HashMap<>();
+    private ConcurrentHashMap<String, Binding> bindings = null;
+
+    private abstract static class Binding {
+        abstract Object value();
+    }
+
+    private static class Constant extends Binding {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object value() {
+            return value;
+        }
+    }
+
+    private static class Variable extends Binding {
+        private volatile Object value;
+
+        Variable(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object value() {
+            return value;
+        }
+    }
+
+    private static Binding bind(Object value) {
+        return value instanceof LoxCallable ? new Constant(value) : new Variable(value);
+    }
+
+    private Binding binding(Token name) {
+        var binding = bindings.get(name.lexeme);
+        if (binding == null) {
+            throw undefined(name);
+        }
+        return binding;
+    }
+
+    @Override
+    void share() {
+        if (bindings != null) {
+            return;
+        }
+        var shared = new ConcurrentHashMap<String, Binding>(values.size() * 2);
+        values.forEach((name, value) -> shared.put(name, bind(value)));
+        bindings = shared;
+        values = null;
+    }
+
+    @Override
+    public Object get(Token name) {
+        if (InterpreterMetrics.ENABLED) {
+            InterpreterMetrics.globalLookups.increment();
+        }
+        if (bindings != null) {
+            return binding(name).value();
+        }
+        var value = values.get(name.lexeme);
+        if (value == null && !values.containsKey(name.lexeme)) {
+            throw undefined(name);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean isDefined(String name) {
+        return bindings != null ? bindings.containsKey(name) : values.containsKey(name);
+    }
+
+    @Override
+    public Object get(String name) {
+        if (bindings != null) {
+            var binding = bindings.get(name);
+            return binding != null ? binding.value() : null;
+        }
+        return values.get(name);
+    }
+
+    @Override
+    public void define(String name, Object value) {
+        if (bindings != null) {
+            bindings.put(name, bind(value));
+            return;
+        }
+        values.put(name, value);
+    }
+
+    @Override
+    public Object assign(Token name, Object value) {
+        if (bindings == null) {
+            if (!values.containsKey(name.lexeme)) {
+                throw undefined(name);
+            }
+            values.put(name.lexeme, value);
+            return value;
+        }
+        for (;;) {
+            var binding = binding(name);
+            if (binding instanceof Variable && !(value instanceof LoxCallable)) {
+                ((Variable) binding).value = value;
+                return value;
+            }
+            if (bindings.replace(name.lexeme, binding, bind(value))) {
+                return value;
+            }
+        }
+    }
+}
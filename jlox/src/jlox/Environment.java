@@ -8,6 +8,9 @@ class Environment {
 
     Environment(Environment outer) {
         this.outer = outer;
+        if (InterpreterMetrics.ENABLED) {
+            InterpreterMetrics.environments.increment();
+        }
     }
 
     public void define(Object value) {
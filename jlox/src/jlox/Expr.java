@@ -1,6 +1,10 @@
 package jlox;
 
 abstract class Expr {
+    // Where the Resolver found the local variable this expression refers to,
+    // null for globals and for expressions that don't refer to a variable.
+    Interpreter.VarCoordinates coordinates;
+
     abstract public <T> T accept(ExprVisitor<T> visitor);
 
     static class Assign extends Expr {
@@ -116,6 +120,42 @@ abstract class Expr {
         }
     }
 
+    static class Index extends Expr {
+        final Expr object;
+        final Token bracket;
+        final Expr index;
+
+        public Index(Expr object, Token bracket, Expr index) {
+            this.object = object;
+            this.bracket = bracket;
+            this.index = index;
+        }
+
+        @Override
+        public <T> T accept(ExprVisitor<T> visitor) {
+            return visitor.visit(this);
+        }
+    }
+
+    static class SetIndex extends Expr {
+        final Expr object;
+        final Token bracket;
+        final Expr index;
+        final Expr value;
+
+        public SetIndex(Expr object, Token bracket, Expr index, Expr value) {
+            this.object = object;
+            this.bracket = bracket;
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        public <T> T accept(ExprVisitor<T> visitor) {
+            return visitor.visit(this);
+        }
+    }
+
     static class Super extends Expr {
         final Token keyword;
         final Token method;
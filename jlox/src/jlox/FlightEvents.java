@@ -0,0 +1,73 @@
+package jlox;
+
+import jdk.jfr.*;
+
+// Flight Recorder events for Lox code, in the 'Lox' category of a recording.
+// Events only cost a check while no recording is running.
+class FlightEvents {
+    private FlightEvents() {
+    }
+
+    @Name("jlox.Call")
+    @Label("Lox Call")
+    @Category("Lox")
+    @Description("Call of a Lox function, class or native that took longer than the threshold")
+    @Threshold("10 ms")
+    @StackTrace(false)
+    static class Call extends Event {
+        @Label("Function")
+        String function;
+
+        @Label("Declaration Line")
+        int line;
+    }
+
+    @Name("jlox.Instantiation")
+    @Label("Lox Instantiation")
+    @Category("Lox")
+    @Description("Instance created by calling a Lox class, off by default since it fires for every instance")
+    @Enabled(false)
+    @StackTrace(false)
+    static class Instantiation extends Event {
+        @Label("Class")
+        String className;
+
+        @Label("Declaration Line")
+        int line;
+    }
+
+    @Name("jlox.RuntimeError")
+    @Label("Lox Runtime Error")
+    @Category("Lox")
+    @StackTrace(false)
+    static class RuntimeError extends Event {
+        @Label("Message")
+        String message;
+
+        @Label("Line")
+        int line;
+    }
+
+    @Name("jlox.SequentialParallel")
+    @Label("Lox Sequential Parallel Call")
+    @Category("Lox")
+    @Description("parallelMap, parallelForEach or parallelReduce running its function on the calling thread, since it may have side effects")
+    @StackTrace(false)
+    static class SequentialParallel extends Event {
+        @Label("Function")
+        String function;
+
+        @Label("Reason")
+        String reason;
+    }
+
+    @Name("jlox.Phase")
+    @Label("Lox Phase")
+    @Category("Lox")
+    @Description("A phase of running a script: cache, scan, parse, resolve, modules or interpret")
+    @StackTrace(false)
+    static class Phase extends Event {
+        @Label("Phase")
+        String phase;
+    }
+}
@@ -0,0 +1,91 @@
+package jlox;
+
+import java.util.*;
+import java.util.function.*;
+
+// Lox functions as the interfaces of java.util.function. Each adapter is a
+// lambda capturing the function and the interpreter to run it on, and calls
+// the function without building an argument list. Java arguments are passed
+// like values set from the host, results unwrapped like method arguments.
+final class FunctionalAdapters {
+    private interface Factory {
+        Object adapt(LoxFunction function, Interpreter interpreter);
+    }
+
+    private static final Map<Class<?>, Integer> ARITIES = new HashMap<>();
+    private static final Map<Class<?>, Factory> FACTORIES = new HashMap<>();
+
+    static {
+        add(Supplier.class, 0, (f, i) -> (Supplier<Object>) () -> JavaInterop.toJava(run(f, i)));
+        add(Function.class, 1, (f, i) -> (Function<Object, Object>) a -> JavaInterop.toJava(run(f, i, JavaInterop.toLox(a))));
+        add(UnaryOperator.class, 1, (f, i) -> (UnaryOperator<Object>) a -> JavaInterop.toJava(run(f, i, JavaInterop.toLox(a))));
+        add(BiFunction.class, 2, (f, i) -> (BiFunction<Object, Object, Object>) (a, b) -> JavaInterop.toJava(run(f, i, JavaInterop.toLox(a), JavaInterop.toLox(b))));
+        add(BinaryOperator.class, 2, (f, i) -> (BinaryOperator<Object>) (a, b) -> JavaInterop.toJava(run(f, i, JavaInterop.toLox(a), JavaInterop.toLox(b))));
+        add(Consumer.class, 1, (f, i) -> (Consumer<Object>) a -> run(f, i, JavaInterop.toLox(a)));
+        add(BiConsumer.class, 2, (f, i) -> (BiConsumer<Object, Object>) (a, b) -> run(f, i, JavaInterop.toLox(a), JavaInterop.toLox(b)));
+        add(Predicate.class, 1, (f, i) -> (Predicate<Object>) a -> Interpreter.isTruthy(run(f, i, JavaInterop.toLox(a))));
+        add(BiPredicate.class, 2, (f, i) -> (BiPredicate<Object, Object>) (a, b) -> Interpreter.isTruthy(run(f, i, JavaInterop.toLox(a), JavaInterop.toLox(b))));
+        add(ToDoubleFunction.class, 1, (f, i) -> (ToDoubleFunction<Object>) a -> number(f, run(f, i, JavaInterop.toLox(a))));
+        add(ToDoubleBiFunction.class, 2, (f, i) -> (ToDoubleBiFunction<Object, Object>) (a, b) -> number(f, run(f, i, JavaInterop.toLox(a), JavaInterop.toLox(b))));
+        add(DoubleSupplier.class, 0, (f, i) -> (DoubleSupplier) () -> number(f, run(f, i)));
+        add(DoubleFunction.class, 1, (f, i) -> (DoubleFunction<Object>) a -> JavaInterop.toJava(run(f, i, a)));
+        add(DoubleUnaryOperator.class, 1, (f, i) -> (DoubleUnaryOperator) a -> number(f, run(f, i, a)));
+        add(DoubleBinaryOperator.class, 2, (f, i) -> (DoubleBinaryOperator) (a, b) -> number(f, run(f, i, a, b)));
+        add(DoublePredicate.class, 1, (f, i) -> (DoublePredicate) a -> Interpreter.isTruthy(run(f, i, a)));
+    }
+
+    private FunctionalAdapters() {
+    }
+
+    private static void add(Class<?> type, int arity, Factory factory) {
+        ARITIES.put(type, arity);
+        FACTORIES.put(type, factory);
+    }
+
+    static <T> T adapt(LoxFunction function, Interpreter interpreter, Class<T> type) {
+        var factory = FACTORIES.get(type);
+        if (factory == null) {
+            throw new IllegalArgumentException(type.getName() + " is not a supported functional interface");
+        }
+        if (ARITIES.get(type) != function.arity()) {
+            throw new IllegalArgumentException(function + " takes " + function.arity()
+                    + " arguments but " + type.getSimpleName() + " passes " + ARITIES.get(type));
+        }
+        return type.cast(factory.adapt(function, interpreter));
+    }
+
+    private static Object run(LoxFunction function, Interpreter interpreter) {
+        try {
+            return function.call(interpreter);
+        } catch (RuntimeError error) {
+            throw failure(error);
+        }
+    }
+
+    private static Object run(LoxFunction function, Interpreter interpreter, Object argument) {
+        try {
+            return function.call(interpreter, argument);
+        } catch (RuntimeError error) {
+            throw failure(error);
+        }
+    }
+
+    private static Object run(LoxFunction function, Interpreter interpreter, Object first, Object second) {
+        try {
+            return function.call(interpreter, first, second);
+        } catch (RuntimeError error) {
+            throw failure(error);
+        }
+    }
+
+    private static LoxException failure(RuntimeError error) {
+        return new LoxException(List.of(error.getMessage() + error.where()));
+    }
+
+    private static double number(LoxFunction function, Object result) {
+        if (result instanceof Double) {
+            return (Double) result;
+        }
+        throw new LoxException(List.of(function + " returned " + Interpreter.stringify(result) + " instead of a number"));
+    }
+}
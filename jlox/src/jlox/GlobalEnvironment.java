@@ -1,28 +1,24 @@
 package jlox;
 
-import java.util.*;
+// The variables of a program's top level. Interpreters create theirs as a
+// DefaultGlobalEnvironment, the script engine keeps them in its bindings.
+public abstract class GlobalEnvironment {
+    public abstract Object get(Token name);
 
-public class GlobalEnvironment {
-    private final HashMap<String, Object> values = new HashMap<>();
+    // The value of a variable, or null if it is not defined.
+    public abstract Object get(String name);
 
-    private void assertDefined(Token name) {
-        if (!values.containsKey(name.lexeme)) {
-            throw new RuntimeError(name, "Undefined variable");
-        }
-    }
+    public abstract boolean isDefined(String name);
 
-    public Object get(Token name) {
-        assertDefined(name);
-        return values.get(name.lexeme);
-    }
+    public abstract void define(String name, Object value);
 
-    public void define(String name, Object value) {
-        values.put(name, value);
-    }
+    public abstract Object assign(Token name, Object value);
+
+    // Called before another thread can see these globals, from the only thread
+    // that used them so far. Afterwards any number of threads may use them.
+    abstract void share();
 
-    public Object assign(Token name, Object value) {
-        assertDefined(name);
-        values.put(name.lexeme, value);
-        return value;
+    static RuntimeError undefined(Token name) {
+        return new RuntimeError(name, "Undefined variable");
     }
 }
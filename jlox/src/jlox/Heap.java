@@ -0,0 +1,17 @@
+package jlox;
+
+// The objects an interpreter and its forks create. Until the first fork only
+// one thread can reach them and instances, arrays and maps take no locks, once
+// the heap is shared they lock on every access. Each engine context has a heap
+// of its own, so one context spawning doesn't slow down the others.
+class Heap {
+    private volatile boolean shared = false;
+
+    boolean isShared() {
+        return shared;
+    }
+
+    void share() {
+        shared = true;
+    }
+}
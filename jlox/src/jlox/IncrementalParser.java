@@ -0,0 +1,393 @@
+package jlox;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import static jlox.TokenType.*;
+
+// Keeps a source buffer split into segments at the top-level declaration
+// boundaries ParallelParser uses, each with its own tokens and statements. An
+// edit re-lexes and re-parses the segments around it, widening the damaged
+// region until it ends on a complete top-level statement, so the untouched
+// segments after it are still valid.
+//
+// The segments are the nodes of a treap ordered by their position in the
+// buffer, and each node keeps the number of segments, characters and newlines
+// in its subtree. Where a segment starts and on which line is the sum over the
+// segments before it, found by walking up to the root, so an edit costs
+// O(log segments) besides re-parsing the damaged region, however many segments
+// follow it.
+//
+// Tokens store their line relative to the line their segment was scanned on,
+// so an edit that adds or removes lines only moves the following segments. A
+// segment remembers its line until the next edit. Scanner errors are kept as
+// reported and get their line numbers moved by as much when errors() is
+// called. An unterminated string or brace in the damaged region widens it to
+// the end of the buffer until it is closed again.
+class IncrementalParser {
+    private Segment root;
+    // Counts the edits, lines remembered in an earlier one are stale.
+    private int generation = 0;
+    private List<String> parseErrors = null;
+    private int parseErrorsGeneration = -1;
+
+    private class Segment {
+        final String text;
+        final int newlines;
+        // The line the segment was scanned on, its tokens and errors are
+        // relative to it.
+        final int scannedLine;
+        final List<String> scanErrors;
+        List<Token> tokens = List.of();
+        List<Stmt> statements = List.of();
+        List<String> parseErrors = List.of();
+
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Segment left = null;
+        Segment right = null;
+        Segment parent = null;
+        // Totals of the subtree this segment is the root of.
+        int count;
+        int length;
+        int lines;
+
+        private int line;
+        private int lineGeneration = -1;
+
+        Segment(String text, List<String> scanErrors, int scannedLine) {
+            this.text = text;
+            this.newlines = newlines(text);
+            this.scannedLine = scannedLine;
+            this.scanErrors = scanErrors;
+            update(this);
+        }
+
+        void anchor(List<Token> tokens) {
+            ArrayList<Token> anchored = new ArrayList<>(tokens.size());
+            for (var token : tokens) {
+                anchored.add(new AnchoredToken(token, this));
+            }
+            this.tokens = anchored;
+        }
+
+        int index() {
+            int index = count(left);
+            for (var node = this; node.parent != null; node = node.parent) {
+                if (node == node.parent.right) {
+                    index += count(node.parent.left) + 1;
+                }
+            }
+            return index;
+        }
+
+        int start() {
+            int start = length(left);
+            for (var node = this; node.parent != null; node = node.parent) {
+                if (node == node.parent.right) {
+                    start += length(node.parent.left) + node.parent.text.length();
+                }
+            }
+            return start;
+        }
+
+        int line() {
+            if (lineGeneration != generation) {
+                line = 1 + lines(left);
+                for (var node = this; node.parent != null; node = node.parent) {
+                    if (node == node.parent.right) {
+                        line += lines(node.parent.left) + node.parent.newlines;
+                    }
+                }
+                lineGeneration = generation;
+            }
+            return line;
+        }
+    }
+
+    private static class AnchoredToken extends Token {
+        private final Segment segment;
+
+        AnchoredToken(Token token, Segment segment) {
+            super(token.type, token.lexeme, token.literal, token.line() - segment.scannedLine, token.offset);
+            this.segment = segment;
+        }
+
+        @Override
+        int line() {
+            return segment.line() + lineNo;
+        }
+    }
+
+    private static class Region {
+        final String text;
+        final List<Token> tokens;
+        final List<String> errors;
+
+        Region(String text, int line) {
+            ArrayList<Token> tokens = new ArrayList<>();
+            this.text = text;
+            this.errors = Lox.collectErrors(() -> tokens.addAll(new Scanner(text, line).scanTokens()));
+            tokens.remove(tokens.size() - 1);
+            this.tokens = tokens;
+        }
+
+        boolean endsOnStatement() {
+            if (!errors.isEmpty() || tokens.isEmpty()) {
+                return false;
+            }
+
+            int depth = 0;
+            for (var token : tokens) {
+                if (token.type.equals(LEFT_BRACE)) {
+                    depth++;
+                } else if (token.type.equals(RIGHT_BRACE) && --depth < 0) {
+                    return false;
+                }
+            }
+            var last = tokens.get(tokens.size() - 1);
+            if (depth != 0 || !(last.type.equals(SEMICOLON) || last.type.equals(RIGHT_BRACE))) {
+                return false;
+            }
+
+            // Only whitespace and comments follow the last token, a comment on the
+            // final line would swallow the start of the next segment.
+            var trailing = text.substring(last.end());
+            return trailing.indexOf('/', trailing.lastIndexOf('\n') + 1) < 0;
+        }
+    }
+
+    IncrementalParser(String source) {
+        var segments = split(new Region(source, 1), 1);
+        root = build(segments);
+        segments.forEach(IncrementalParser::parse);
+    }
+
+    public void edit(int offset, int length, String replacement) {
+        int first = segmentAt(offset).index();
+        int last = segmentAt(offset + length).index();
+        int lo = Math.max(0, first - 1);
+
+        var parts = split(root, lo);
+        var before = detach(parts[0]);
+        parts = split(parts[1], last + 1 - lo);
+        var damaged = detach(parts[0]);
+        var after = detach(parts[1]);
+
+        int start = length(before);
+        int line = 1 + lines(before);
+        var text = new StringBuilder();
+        forEach(damaged, segment -> text.append(segment.text));
+        text.replace(offset - start, offset + length - start, replacement);
+
+        var region = new Region(text.toString(), line);
+        while (after != null && !region.endsOnStatement()) {
+            parts = split(after, 1);
+            text.append(parts[0].text);
+            after = detach(parts[1]);
+            region = new Region(text.toString(), line);
+        }
+
+        // Parsed once in place, so their tokens already have their lines.
+        var replacements = split(region, line);
+        root = detach(merge(merge(before, build(replacements)), after));
+        generation++;
+        replacements.forEach(IncrementalParser::parse);
+    }
+
+    public String source() {
+        var source = new StringBuilder(length(root));
+        forEach(root, segment -> source.append(segment.text));
+        return source.toString();
+    }
+
+    public List<Stmt> statements() {
+        ArrayList<Stmt> statements = new ArrayList<>();
+        forEach(root, segment -> statements.addAll(segment.statements));
+        return statements;
+    }
+
+    // The errors a full scan and parse of the buffer would report: scanner errors
+    // if there are any, parser errors otherwise. The buffer parses without errors
+    // exactly when every segment does, but after an error a full parse can
+    // still be skipping tokens where a segment boundary would have recovered,
+    // so when a segment has errors the parser errors come from parsing all
+    // tokens again, once per edit.
+    public List<String> errors() {
+        ArrayList<String> errors = new ArrayList<>();
+        int[] line = {1};
+        boolean[] unparsed = {false};
+        forEach(root, segment -> {
+            for (var error : segment.scanErrors) {
+                errors.add(moved(error, line[0] - segment.scannedLine));
+            }
+            line[0] += segment.newlines;
+            unparsed[0] |= !segment.parseErrors.isEmpty();
+        });
+        if (!errors.isEmpty() || !unparsed[0]) {
+            return errors;
+        }
+
+        if (parseErrorsGeneration != generation) {
+            ArrayList<Token> tokens = new ArrayList<>();
+            forEach(root, segment -> tokens.addAll(segment.tokens));
+            tokens.add(new Token(EOF, "", 1 + lines(root)));
+            parseErrors = Lox.collectErrors(() -> new Parser(tokens).parse());
+            parseErrorsGeneration = generation;
+        }
+        return parseErrors;
+    }
+
+    private static String moved(String error, int lines) {
+        if (lines == 0 || !error.startsWith("[line ")) {
+            return error;
+        }
+        int end = error.indexOf(']');
+        return "[line " + (Integer.parseInt(error.substring("[line ".length(), end)) + lines) + error.substring(end);
+    }
+
+    private Segment segmentAt(int offset) {
+        var segment = root;
+        for (;;) {
+            int before = length(segment.left);
+            if (offset < before) {
+                segment = segment.left;
+            } else if (offset < before + segment.text.length() || segment.right == null) {
+                return segment;
+            } else {
+                offset -= before + segment.text.length();
+                segment = segment.right;
+            }
+        }
+    }
+
+    private List<Segment> split(Region region, int line) {
+        if (!region.errors.isEmpty()) {
+            var segment = new Segment(region.text, region.errors, line);
+            segment.anchor(region.tokens);
+            return List.of(segment);
+        }
+
+        var boundaries = new ArrayList<Integer>();
+        boundaries.add(0);
+        boundaries.addAll(ParallelParser.declarationBoundaries(region.tokens));
+        boundaries.add(region.tokens.size());
+
+        ArrayList<Segment> segments = new ArrayList<>();
+        int from = 0;
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            var tokens = region.tokens.subList(boundaries.get(i), boundaries.get(i + 1));
+            int to = i < boundaries.size() - 2
+                    ? region.tokens.get(boundaries.get(i + 1)).offset
+                    : region.text.length();
+            var segment = new Segment(region.text.substring(from, to), List.of(), line);
+            segment.anchor(tokens);
+            segments.add(segment);
+            line += segment.newlines;
+            from = to;
+        }
+        return segments;
+    }
+
+    private static void parse(Segment segment) {
+        if (!segment.scanErrors.isEmpty()) {
+            return;
+        }
+        ArrayList<Token> tokens = new ArrayList<>(segment.tokens);
+        tokens.add(new Token(EOF, "", segment.line() + segment.newlines));
+        ArrayList<Stmt> statements = new ArrayList<>();
+        segment.parseErrors = Lox.collectErrors(() -> statements.addAll(new Parser(tokens).parse()));
+        segment.statements = statements;
+    }
+
+    private static int count(Segment segment) {
+        return segment != null ? segment.count : 0;
+    }
+
+    private static int length(Segment segment) {
+        return segment != null ? segment.length : 0;
+    }
+
+    private static int lines(Segment segment) {
+        return segment != null ? segment.lines : 0;
+    }
+
+    private static Segment update(Segment segment) {
+        segment.count = count(segment.left) + 1 + count(segment.right);
+        segment.length = length(segment.left) + segment.text.length() + length(segment.right);
+        segment.lines = lines(segment.left) + segment.newlines + lines(segment.right);
+        if (segment.left != null) {
+            segment.left.parent = segment;
+        }
+        if (segment.right != null) {
+            segment.right.parent = segment;
+        }
+        return segment;
+    }
+
+    private static Segment detach(Segment segment) {
+        if (segment != null) {
+            segment.parent = null;
+        }
+        return segment;
+    }
+
+    // All segments of left, then all of right.
+    private static Segment merge(Segment left, Segment right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    // The first count segments and the rest, the parents of both roots are stale.
+    private static Segment[] split(Segment segment, int count) {
+        if (segment == null) {
+            return new Segment[2];
+        }
+        if (count(segment.left) >= count) {
+            var parts = split(segment.left, count);
+            segment.left = parts[1];
+            parts[1] = update(segment);
+            return parts;
+        }
+        var parts = split(segment.right, count - count(segment.left) - 1);
+        segment.right = parts[0];
+        parts[0] = update(segment);
+        return parts;
+    }
+
+    private static Segment build(List<Segment> segments) {
+        Segment root = null;
+        for (var segment : segments) {
+            root = detach(merge(root, segment));
+        }
+        return root;
+    }
+
+    private static void forEach(Segment segment, Consumer<Segment> action) {
+        if (segment != null) {
+            forEach(segment.left, action);
+            action.accept(segment);
+            forEach(segment.right, action);
+        }
+    }
+
+    private static int newlines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -1,15 +1,26 @@
 package jlox;
 
+import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 import java.util.stream.*;
 
 class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
-    private final GlobalEnvironment globals = new GlobalEnvironment();
+    private GlobalEnvironment globals;
     private Environment environment = null;
-    private final HashMap<Expr, VarCoordinates> locals = new HashMap<>();
-
-    private static class VarCoordinates {
+    private final Map<Stmt.Import, Module> imports = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Path, Module> modules = new ConcurrentHashMap<>();
+    private Profiler profiler = null;
+    private ShadowStack shadowStack = null;
+    private AllocationSites allocations = null;
+    private final PrintWriter out;
+    private final Heap heap;
+    // Spawned tasks that failed, shared with the interpreters running them.
+    private final Queue<Spawn.Task> failedTasks;
+
+    static class VarCoordinates {
         final int distance;
         final int index;
 
@@ -19,21 +30,90 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         }
     }
 
-    public Interpreter() {
+    Interpreter() {
+        this(null);
+    }
+
+    // Prints to the given writer, or to whatever System.out is at the time.
+    Interpreter(PrintWriter out) {
+        this(out, createGlobals());
+    }
+
+    Interpreter(PrintWriter out, GlobalEnvironment globals) {
+        this(out, globals, new Heap(), new ConcurrentLinkedQueue<>());
+    }
+
+    private Interpreter(PrintWriter out, GlobalEnvironment globals, Heap heap, Queue<Spawn.Task> failedTasks) {
+        this.out = out;
+        this.globals = globals;
+        this.heap = heap;
+        this.failedTasks = failedTasks;
+    }
+
+    // An interpreter for another thread running this one's code, the failures
+    // of tasks it spawns are reported by this one.
+    Interpreter fork() {
+        share();
+        return new Interpreter(out, globals, heap, failedTasks);
+    }
+
+    // An interpreter on the same globals that runs scripts of its own.
+    Interpreter fork(PrintWriter out) {
+        share();
+        return new Interpreter(out, globals, heap, new ConcurrentLinkedQueue<>());
+    }
+
+    // Called by the thread running this interpreter before other threads can
+    // see anything it created.
+    void share() {
+        heap.share();
+        globals.share();
+        modules.values().forEach(module -> module.globals.share());
+    }
+
+    Heap heap() {
+        return heap;
+    }
+
+    static GlobalEnvironment createGlobals() {
+        var globals = new DefaultGlobalEnvironment();
         globals.define("clock", new Clock());
+        globals.define("spawn", new Spawn());
+        globals.define("channel", new Channel.Constructor());
+        globals.define("Array", new LoxArray.Constructor());
+        globals.define("Map", new LoxMap.Constructor());
+        globals.define("parallelMap", new Parallel(Parallel.Operation.MAP));
+        globals.define("parallelForEach", new Parallel(Parallel.Operation.FOR_EACH));
+        globals.define("parallelReduce", new Parallel(Parallel.Operation.REDUCE));
+        return globals;
     }
 
     public void interpret(List<Stmt> statements) {
         try {
             for (var statement : statements) {
+                if (InterpreterMetrics.ENABLED) {
+                    InterpreterMetrics.statements.increment();
+                }
                 statement.accept(this);
             }
         } catch (RuntimeError error) {
             Lox.runtimeError(error);
         }
+
+        // Tasks still running are reported by a later run, if there is one.
+        for (Spawn.Task task; (task = failedTasks.poll()) != null; ) {
+            var failure = task.unjoinedFailure();
+            if (failure != null) {
+                Lox.runtimeError(failure);
+            }
+        }
     }
 
-    private String stringify(Object object) {
+    void taskFailed(Spawn.Task task) {
+        failedTasks.add(task);
+    }
+
+    static String stringify(Object object) {
         if (object == null) {
             return "nil";
         }
@@ -44,7 +124,7 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         return string;
     }
 
-    private boolean isTruthy(Object object) {
+    static boolean isTruthy(Object object) {
         return object != null && !object.equals(false);
     }
 
@@ -56,7 +136,7 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         } else if (expr.operator.type.equals(TokenType.MINUS)) {
             var operand = expr.operand.accept(this);
             if (operand instanceof Double) {
-                return -(Double) operand;
+                return allocated(expr, -(Double) operand);
             }
         }
 
@@ -81,17 +161,64 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
                     arguments.size());
         }
 
-        return function.call(this, arguments);
+        if (shadowStack != null) {
+            shadowStack.at(expr.parens.line());
+        }
+        if (allocations != null) {
+            allocations.recordCall(expr, function);
+        }
+        return function instanceof LoxFunction ? call(function, arguments) : callNative(expr, function, arguments);
+    }
+
+    // Natives don't know where they were called from.
+    private Object callNative(Expr.Call expr, LoxCallable function, List<Object> arguments) {
+        try {
+            return call(function, arguments);
+        } catch (RuntimeError error) {
+            if (error.cause == null) {
+                throw new RuntimeError(expr.parens, error.getMessage());
+            }
+            throw error;
+        }
+    }
+
+    Object call(LoxCallable function, List<Object> arguments) {
+        if (InterpreterMetrics.ENABLED) {
+            InterpreterMetrics.calls.increment();
+        }
+        var event = new FlightEvents.Call();
+        event.begin();
+        if (shadowStack != null) {
+            shadowStack.push(function);
+        }
+        try {
+            return profiler == null ? function.call(this, arguments) : profiler.call(this, function, arguments);
+        } finally {
+            if (shadowStack != null) {
+                shadowStack.pop();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.function = Profiler.name(function);
+                event.line = Profiler.line(function);
+                event.commit();
+            }
+        }
     }
 
     @Override
     public Object visit(Expr.Get expr) {
         var object = expr.object.accept(this);
-        if (!(object instanceof LoxInstance)) {
+        if (!(object instanceof LoxObject)) {
             throw new RuntimeError(expr.name, "Only instances have properties");
         }
 
-        return ((LoxInstance) object).get(expr.name);
+        if (allocations != null && object instanceof LoxInstance
+                && !((LoxInstance) object).hasField(expr.name.lexeme)) {
+            allocations.record(expr, AllocationSites.Kind.FUNCTION);
+            allocations.record(expr, AllocationSites.Kind.ENVIRONMENT);
+        }
+        return ((LoxObject) object).get(expr.name);
     }
 
     @Override
@@ -107,9 +234,30 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         return value;
     }
 
+    @Override
+    public Object visit(Expr.Index expr) {
+        var object = expr.object.accept(this);
+        if (!(object instanceof LoxIndexable)) {
+            throw new RuntimeError(expr.bracket, "Only arrays and maps can be indexed");
+        }
+
+        return ((LoxIndexable) object).get(expr.bracket, expr.index.accept(this));
+    }
+
+    @Override
+    public Object visit(Expr.SetIndex expr) {
+        var object = expr.object.accept(this);
+        if (!(object instanceof LoxIndexable)) {
+            throw new RuntimeError(expr.bracket, "Only arrays and maps can be indexed");
+        }
+
+        var index = expr.index.accept(this);
+        return ((LoxIndexable) object).set(expr.bracket, index, expr.value.accept(this));
+    }
+
     @Override
     public Object visit(Expr.Super expr) {
-        var coordinates = locals.get(expr);
+        var coordinates = expr.coordinates;
         var superclass = (LoxClass) environment.getAt(coordinates.distance, coordinates.index);
         var instance = (LoxInstance) environment.getAt(coordinates.distance - 1, 0);
         var method = superclass.findMethod(expr.method.lexeme);
@@ -117,6 +265,10 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         if (method == null) {
             throw new RuntimeError(expr.method, "Undefined property '" + expr.method.lexeme + "'");
         }
+        if (allocations != null) {
+            allocations.record(expr, AllocationSites.Kind.FUNCTION);
+            allocations.record(expr, AllocationSites.Kind.ENVIRONMENT);
+        }
         return method.bind(instance);
     }
 
@@ -185,7 +337,7 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
     @Override
     public Object visit(Expr.Assign expr) {
         var value = expr.value.accept(this);
-        var coordinates = locals.get(expr);
+        var coordinates = expr.coordinates;
 
         return coordinates != null ? environment.assignAt(coordinates.distance, coordinates.index, value)
                 : globals.assign(expr.name, value);
@@ -218,18 +370,25 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
             case GREATER_EQUAL:
                 return compare(expr, (left, right) -> left >= right);
             case PLUS:
-                return add(expr);
+                return allocated(expr, add(expr));
             case MINUS:
-                return subtract(expr);
+                return allocated(expr, subtract(expr));
             case STAR:
-                return multiply(expr);
+                return allocated(expr, multiply(expr));
             case SLASH:
-                return divide(expr);
+                return allocated(expr, divide(expr));
         }
 
         throw new RuntimeError(expr.operator, "Unexpected token");
     }
 
+    private Object allocated(Expr expr, Object value) {
+        if (allocations != null) {
+            allocations.recordValue(expr, value);
+        }
+        return value;
+    }
+
     @Override
     public Object visit(Expr.Grouping expr) {
         return expr.expression.accept(this);
@@ -239,7 +398,7 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
     public Object visit(Expr.This expr) {
         assert environment != null;
 
-        var coordinates = locals.get(expr);
+        var coordinates = expr.coordinates;
         return environment.getAt(coordinates.distance, coordinates.index);
     }
 
@@ -250,7 +409,7 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
 
     @Override
     public Object visit(Expr.Variable expr) {
-        var coordinates = locals.get(expr);
+        var coordinates = expr.coordinates;
         return coordinates != null ? environment.getAt(coordinates.distance, coordinates.index)
                 : globals.get(expr.name);
     }
@@ -260,6 +419,9 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         try {
             this.environment = environment;
             for (var statement : statements) {
+                if (InterpreterMetrics.ENABLED) {
+                    InterpreterMetrics.statements.increment();
+                }
                 statement.accept(this);
             }
         } finally {
@@ -267,8 +429,21 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         }
     }
 
+    public void executeBlock(List<Stmt> statements, Environment environment, GlobalEnvironment globals) {
+        GlobalEnvironment previous = this.globals;
+        try {
+            this.globals = globals;
+            executeBlock(statements, environment);
+        } finally {
+            this.globals = previous;
+        }
+    }
+
     @Override
     public Void visit(Stmt.Block stmt) {
+        if (allocations != null) {
+            allocations.record(stmt, AllocationSites.Kind.ENVIRONMENT);
+        }
         executeBlock(stmt.statements, new Environment(environment));
         return null;
     }
@@ -282,8 +457,14 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
     @Override
     public Void visit(Stmt.If stmt) {
         if (isTruthy(stmt.condition.accept(this))) {
+            if (InterpreterMetrics.ENABLED) {
+                InterpreterMetrics.statements.increment();
+            }
             stmt.thenBranch.accept(this);
         } else {
+            if (InterpreterMetrics.ENABLED) {
+                InterpreterMetrics.statements.increment();
+            }
             stmt.elseBranch.accept(this);
         }
         return null;
@@ -292,6 +473,9 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
     @Override
     public Void visit(Stmt.While stmt) {
         while (isTruthy(stmt.condition.accept(this))) {
+            if (InterpreterMetrics.ENABLED) {
+                InterpreterMetrics.statements.increment();
+            }
             stmt.body.accept(this);
         }
         return null;
@@ -299,7 +483,12 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
 
     @Override
     public Void visit(Stmt.Print stmt) {
-        System.out.println(stringify(stmt.expression.accept(this)));
+        var text = stringify(stmt.expression.accept(this));
+        if (out != null) {
+            out.println(text);
+        } else {
+            System.out.println(text);
+        }
         return null;
     }
 
@@ -321,7 +510,10 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
 
     @Override
     public Void visit(Stmt.Function stmt) {
-        var function = new LoxFunction(stmt, environment, false);
+        var function = new LoxFunction(stmt, environment, globals, false);
+        if (allocations != null) {
+            allocations.record(stmt, AllocationSites.Kind.FUNCTION);
+        }
         if (environment != null) {
             environment.define(function);
         } else {
@@ -340,6 +532,41 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
         return null;
     }
 
+    // Defines the variables, functions and classes the module declares at its
+    // top level, not the natives or whatever the module imported itself. A name
+    // the importer already defined keeps its binding, so importing never
+    // overwrites the importer's own variables, and of two modules declaring the
+    // same name the one imported first wins.
+    @Override
+    public Void visit(Stmt.Import stmt) {
+        var module = imports.get(stmt);
+        if (module.state == Module.State.RUNNING) {
+            throw new RuntimeError(stmt.path, "Circular import of " + stmt.path.lexeme);
+        }
+        if (module.state == Module.State.LOADED) {
+            runModule(module);
+        }
+
+        for (var name : module.declarations()) {
+            if (!globals.isDefined(name)) {
+                globals.define(name, module.globals.get(name));
+            }
+        }
+        return null;
+    }
+
+    private void runModule(Module module) {
+        module.state = Module.State.RUNNING;
+        Environment previous = environment;
+        try {
+            environment = null;
+            executeBlock(module.statements, null, module.globals);
+        } finally {
+            environment = previous;
+            module.state = Module.State.DONE;
+        }
+    }
+
     private void defineGlobalClass(Stmt.Class stmt) {
         globals.define(stmt.name.lexeme, null);
         globals.assign(stmt.name, defineClass(stmt));
@@ -363,19 +590,62 @@ class Interpreter implements ExprVisitor<Object>, StmtVisitor<Void> {
             environment.define(superclass);
         }
 
+        if (allocations != null) {
+            allocations.record(stmt, AllocationSites.Kind.FUNCTION, stmt.methods.size());
+            allocations.record(stmt, AllocationSites.Kind.ENVIRONMENT, superclass != null ? 1 : 0);
+        }
+
         HashMap<String, LoxFunction> methods = new HashMap<>();
         for (var method : stmt.methods) {
-            methods.put(method.name.lexeme, new LoxFunction(method, environment, false));
+            methods.put(method.name.lexeme, new LoxFunction(method, environment, globals, false));
         }
 
         if (superclass != null) {
             environment = environment.enclosing();
         }
 
-        return new LoxClass(stmt.name.lexeme, (LoxClass) superclass, methods);
+        return new LoxClass(stmt.name, (LoxClass) superclass, methods);
+    }
+
+    public void profile(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public ShadowStack shadowStack() {
+        if (shadowStack == null) {
+            shadowStack = new ShadowStack();
+        }
+        return shadowStack;
+    }
+
+    public AllocationSites trackAllocations() {
+        if (allocations == null) {
+            allocations = new AllocationSites();
+        }
+        return allocations;
+    }
+
+    GlobalEnvironment globals() {
+        return globals;
     }
 
     public void resolve(Expr expr, int depth, int index) {
-        locals.put(expr, new VarCoordinates(depth, index));
+        expr.coordinates = new VarCoordinates(depth, index);
+    }
+
+    VarCoordinates coordinates(Expr expr) {
+        return expr.coordinates;
+    }
+
+    public void resolveImport(Stmt.Import stmt, Module module) {
+        imports.put(stmt, module);
+    }
+
+    Module importedModule(Stmt.Import stmt) {
+        return imports.get(stmt);
+    }
+
+    ConcurrentMap<Path, Module> modules() {
+        return modules;
     }
 }
@@ -0,0 +1,120 @@
+package jlox;
+
+import javax.management.*;
+import java.lang.management.*;
+import java.util.concurrent.atomic.*;
+
+// Counters for every interpreter in the JVM, published as 'jlox:type=Interpreter'
+// once register is called, which the command line does for --jmx and embedders
+// through LoxEngine.registerMetrics, since starting the platform MBean server
+// adds a few hundred milliseconds to startup. The
+// counters only count when the jlox.metrics system property is true as this
+// class is initialized, every increment is guarded by the constant so the
+// default path compiles to nothing. The command line sets it for --jmx and
+// --stats, embedders can pass -Djlox.metrics=true.
+public class InterpreterMetrics implements InterpreterMetricsMBean {
+    static final boolean ENABLED = Boolean.getBoolean("jlox.metrics");
+
+    static final LongAdder statements = new LongAdder();
+    static final LongAdder calls = new LongAdder();
+    static final LongAdder instances = new LongAdder();
+    static final LongAdder environments = new LongAdder();
+    static final LongAdder globalLookups = new LongAdder();
+    static final LongAdder runtimeErrors = new LongAdder();
+    static final LongAdder sequentialParallelCalls = new LongAdder();
+    static final LongAdder scanNanos = new LongAdder();
+    static final LongAdder parseNanos = new LongAdder();
+    static final LongAdder resolveNanos = new LongAdder();
+    static final LongAdder interpretNanos = new LongAdder();
+
+    private static final String NAME = "jlox:type=Interpreter";
+
+    static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new InterpreterMetrics(), new ObjectName(NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Counters are static, the registered instance already reports them.
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void phase(String phase, long nanos) {
+        switch (phase) {
+            case "scan": scanNanos.add(nanos); break;
+            case "parse": parseNanos.add(nanos); break;
+            case "resolve": resolveNanos.add(nanos); break;
+            case "interpret": interpretNanos.add(nanos); break;
+        }
+    }
+
+    @Override
+    public long getStatementsExecuted() {
+        return statements.sum();
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getInstancesCreated() {
+        return instances.sum();
+    }
+
+    @Override
+    public long getEnvironmentsAllocated() {
+        return environments.sum();
+    }
+
+    @Override
+    public long getGlobalLookups() {
+        return globalLookups.sum();
+    }
+
+    @Override
+    public long getRuntimeErrors() {
+        return runtimeErrors.sum();
+    }
+
+    @Override
+    public long getSequentialParallelCalls() {
+        return sequentialParallelCalls.sum();
+    }
+
+    @Override
+    public long getScanNanos() {
+        return scanNanos.sum();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    @Override
+    public long getResolveNanos() {
+        return resolveNanos.sum();
+    }
+
+    @Override
+    public long getInterpretNanos() {
+        return interpretNanos.sum();
+    }
+
+    @Override
+    public void reset() {
+        statements.reset();
+        calls.reset();
+        instances.reset();
+        environments.reset();
+        globalLookups.reset();
+        runtimeErrors.reset();
+        sequentialParallelCalls.reset();
+        scanNanos.reset();
+        parseNanos.reset();
+        resolveNanos.reset();
+        interpretNanos.reset();
+    }
+}
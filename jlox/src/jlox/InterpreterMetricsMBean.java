@@ -0,0 +1,16 @@
+package jlox;
+
+public interface InterpreterMetricsMBean {
+    long getStatementsExecuted();
+    long getCalls();
+    long getInstancesCreated();
+    long getEnvironmentsAllocated();
+    long getGlobalLookups();
+    long getRuntimeErrors();
+    long getSequentialParallelCalls();
+    long getScanNanos();
+    long getParseNanos();
+    long getResolveNanos();
+    long getInterpretNanos();
+    void reset();
+}
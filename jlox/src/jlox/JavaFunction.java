@@ -0,0 +1,56 @@
+package jlox;
+
+import java.lang.invoke.*;
+import java.util.*;
+
+// A Java method callable from Lox, with a handle adapted by JavaInterop.
+// Instance methods are bound to their receiver when they are accessed.
+class JavaFunction implements LoxCallable {
+    private final String name;
+    private final MethodHandle handle;
+    private final Class<?>[] parameterTypes;
+    private final Object receiver;
+    private final Token token;
+
+    JavaFunction(String name, MethodHandle handle, Class<?>[] parameterTypes, Object receiver, Token token) {
+        this.name = name;
+        this.handle = handle;
+        this.parameterTypes = parameterTypes;
+        this.receiver = receiver;
+        this.token = token;
+    }
+
+    JavaFunction bind(Object receiver, Token token) {
+        return new JavaFunction(name, handle, parameterTypes, receiver, token);
+    }
+
+    // Arguments are checked up front, so that a ClassCastException the method
+    // throws isn't mistaken for one. Errors aren't the script's to handle and
+    // pass through.
+    @Override
+    public Object call(Interpreter interpreter, List<Object> arguments) {
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!JavaInterop.accepts(parameterTypes[i], arguments.get(i))) {
+                throw new RuntimeError(token, "Wrong argument type for Java method '" + name + "': expected "
+                        + parameterTypes[i].getSimpleName() + " but got " + Interpreter.stringify(arguments.get(i)));
+            }
+        }
+        try {
+            return (Object) handle.invokeExact(receiver, arguments.toArray());
+        } catch (RuntimeError | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeError(token, "Java method '" + name + "' threw " + e);
+        }
+    }
+
+    @Override
+    public int arity() {
+        return parameterTypes.length;
+    }
+
+    @Override
+    public String toString() {
+        return "<java fn " + name + ">";
+    }
+}
@@ -0,0 +1,252 @@
+package jlox;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+import static java.lang.invoke.MethodType.methodType;
+
+// Adapts Java methods to Lox. A method handle is converted once, when it is
+// exposed or a class is first used from Lox: each parameter gets a filter from
+// the Lox value to its Java type and the result one back, so a call only spreads
+// its arguments into the adapted handle. Numbers become any primitive, strings
+// Strings or chars, Java objects other than Lox values are wrapped in JavaObject.
+final class JavaInterop {
+    private static final Map<Class<?>, MethodHandle> ARGUMENTS = new HashMap<>();
+    private static final Map<Class<?>, MethodHandle> RESULTS = new HashMap<>();
+    private static final MethodHandle TO_JAVA;
+    private static final MethodHandle TO_LOX;
+
+    // The public instance methods of each class, by name. Overloaded names map
+    // to null, since Lox can't tell the overloads apart.
+    private static final ClassValue<Map<String, JavaFunction>> METHODS = new ClassValue<>() {
+        @Override
+        protected Map<String, JavaFunction> computeValue(Class<?> type) {
+            HashMap<String, JavaFunction> methods = new HashMap<>();
+            for (var method : type.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                var handle = accessible(method);
+                if (handle == null) {
+                    continue;
+                }
+                methods.put(method.getName(), methods.containsKey(method.getName()) ? null : function(method.getName(), handle, true));
+            }
+            return methods;
+        }
+    };
+
+    static {
+        var lookup = MethodHandles.lookup();
+        try {
+            for (var type : List.of(double.class, float.class, long.class, int.class, short.class, byte.class, char.class, boolean.class)) {
+                var name = Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+                ARGUMENTS.put(type, lookup.findStatic(JavaInterop.class, "to" + name, methodType(type, Object.class)));
+                RESULTS.put(type, lookup.findStatic(JavaInterop.class, "from" + name, methodType(Object.class, type)));
+            }
+            ARGUMENTS.put(String.class, lookup.findStatic(JavaInterop.class, "toJavaString", methodType(String.class, Object.class)));
+            TO_JAVA = lookup.findStatic(JavaInterop.class, "toJava", methodType(Object.class, Object.class));
+            TO_LOX = lookup.findStatic(JavaInterop.class, "toLox", methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private JavaInterop() {
+    }
+
+    static JavaFunction function(String name, MethodHandle handle, boolean hasReceiver) {
+        var parameters = handle.asFixedArity().type().parameterList();
+        var types = parameters.subList(hasReceiver ? 1 : 0, parameters.size()).toArray(new Class<?>[0]);
+        return new JavaFunction(name, adapt(handle, hasReceiver), types, null, null);
+    }
+
+    // Whether a Lox value can be passed as the type without a ClassCastException.
+    // Primitives, their boxes and strings are converted by filters that report
+    // values they can't take themselves.
+    static boolean accepts(Class<?> type, Object value) {
+        if (value == null || ARGUMENTS.containsKey(type) || ARGUMENTS.containsKey(methodType(type).unwrap().returnType())) {
+            return true;
+        }
+        return type.isInstance(toJava(value));
+    }
+
+    // A handle of type (Object receiver, Object[] arguments)Object. Handles
+    // without a receiver ignore it.
+    private static MethodHandle adapt(MethodHandle handle, boolean hasReceiver) {
+        handle = handle.asFixedArity();
+        var type = handle.type();
+        int first = hasReceiver ? 1 : 0;
+        for (int i = first; i < type.parameterCount(); i++) {
+            handle = MethodHandles.filterArguments(handle, i, argument(type.parameterType(i)));
+        }
+
+        var result = type.returnType();
+        if (RESULTS.containsKey(result)) {
+            handle = MethodHandles.filterReturnValue(handle, RESULTS.get(result));
+        } else if (result != void.class) {
+            handle = MethodHandles.filterReturnValue(handle, TO_LOX.asType(methodType(Object.class, result)));
+        }
+
+        handle = hasReceiver
+                ? handle.asType(handle.type().changeParameterType(0, Object.class).changeReturnType(Object.class))
+                : MethodHandles.dropArguments(handle.asType(handle.type().changeReturnType(Object.class)), 0, Object.class);
+        return handle.asSpreader(Object[].class, type.parameterCount() - first);
+    }
+
+    private static MethodHandle argument(Class<?> type) {
+        if (ARGUMENTS.containsKey(type)) {
+            return ARGUMENTS.get(type);
+        }
+        var primitive = MethodType.methodType(type).unwrap().returnType();
+        if (primitive != type && ARGUMENTS.containsKey(primitive)) {
+            return ARGUMENTS.get(primitive).asType(methodType(type, Object.class));
+        }
+        return TO_JAVA.asType(methodType(type, Object.class));
+    }
+
+    // The unbound instance method, or null if there is none or it is overloaded.
+    static JavaFunction method(Class<?> type, String name) {
+        return METHODS.get(type).get(name);
+    }
+
+    static boolean hasMethod(Class<?> type, String name) {
+        return METHODS.get(type).containsKey(name);
+    }
+
+    // Methods of classes that aren't public can still be called through a
+    // public class or interface that declares them.
+    private static MethodHandle accessible(Method method) {
+        ArrayDeque<Class<?>> types = new ArrayDeque<>();
+        types.add(method.getDeclaringClass());
+        while (!types.isEmpty()) {
+            var type = types.poll();
+            if (Modifier.isPublic(type.getModifiers())) {
+                try {
+                    return MethodHandles.publicLookup().unreflect(type.getMethod(method.getName(), method.getParameterTypes()));
+                } catch (NoSuchMethodException | IllegalAccessException e) {
+                    // Keep looking in the supertypes.
+                }
+            }
+            if (type.getSuperclass() != null) {
+                types.add(type.getSuperclass());
+            }
+            types.addAll(Arrays.asList(type.getInterfaces()));
+        }
+        return null;
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        throw new RuntimeError(null, "Expected a number but got " + Interpreter.stringify(value));
+    }
+
+    private static float toFloat(Object value) {
+        double number = toDouble(value);
+        if (Double.isFinite(number) && Math.abs(number) > Float.MAX_VALUE) {
+            throw new RuntimeError(null, "Expected a number in float range but got " + Interpreter.stringify(value));
+        }
+        return (float) number;
+    }
+
+    private static long toLong(Object value) {
+        return toInteger(value, Long.SIZE, "long");
+    }
+
+    private static int toInt(Object value) {
+        return (int) toInteger(value, Integer.SIZE, "int");
+    }
+
+    private static short toShort(Object value) {
+        return (short) toInteger(value, Short.SIZE, "short");
+    }
+
+    private static byte toByte(Object value) {
+        return (byte) toInteger(value, Byte.SIZE, "byte");
+    }
+
+    // Whole numbers that fit a two's complement integer of the given size,
+    // anything else would be truncated or saturated by a cast.
+    private static long toInteger(Object value, int bits, String type) {
+        double number = toDouble(value);
+        double bound = Math.scalb(1.0, bits - 1);
+        if (number != Math.rint(number) || number < -bound || number >= bound) {
+            throw new RuntimeError(null, "Expected an integer in " + type + " range but got " + Interpreter.stringify(value));
+        }
+        return (long) number;
+    }
+
+    private static char toChar(Object value) {
+        if (value instanceof String && ((String) value).length() == 1) {
+            return ((String) value).charAt(0);
+        }
+        throw new RuntimeError(null, "Expected a single character but got " + Interpreter.stringify(value));
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw new RuntimeError(null, "Expected a boolean but got " + Interpreter.stringify(value));
+    }
+
+    private static String toJavaString(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw new RuntimeError(null, "Expected a string but got " + Interpreter.stringify(value));
+    }
+
+    static Object toJava(Object value) {
+        return value instanceof JavaObject ? ((JavaObject) value).object : value;
+    }
+
+    private static Object fromDouble(double value) {
+        return value;
+    }
+
+    private static Object fromFloat(float value) {
+        return (double) value;
+    }
+
+    private static Object fromLong(long value) {
+        return (double) value;
+    }
+
+    private static Object fromInt(int value) {
+        return (double) value;
+    }
+
+    private static Object fromShort(short value) {
+        return (double) value;
+    }
+
+    private static Object fromByte(byte value) {
+        return (double) value;
+    }
+
+    private static Object fromChar(char value) {
+        return String.valueOf(value);
+    }
+
+    private static Object fromBoolean(boolean value) {
+        return value;
+    }
+
+    static Object toLox(Object value) {
+        if (value == null || value instanceof Double || value instanceof String || value instanceof Boolean
+                || value instanceof LoxCallable || value instanceof LoxObject) {
+            return value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Character) {
+            return value.toString();
+        }
+        return new JavaObject(value);
+    }
+}
@@ -0,0 +1,37 @@
+package jlox;
+
+// A Java object handed to Lox. Its public instance methods are its properties,
+// as long as their names aren't overloaded.
+class JavaObject implements LoxObject {
+    final Object object;
+
+    JavaObject(Object object) {
+        this.object = object;
+    }
+
+    @Override
+    public Object get(Token name) {
+        var method = JavaInterop.method(object.getClass(), name.lexeme);
+        if (method == null) {
+            throw new RuntimeError(name, JavaInterop.hasMethod(object.getClass(), name.lexeme)
+                    ? "Java method '" + name.lexeme + "' is overloaded"
+                    : "Undefined property '" + name.lexeme + "'");
+        }
+        return method.bind(object, name);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof JavaObject && ((JavaObject) other).object.equals(object);
+    }
+
+    @Override
+    public int hashCode() {
+        return object.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return object.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package jlox;
+
+import java.util.*;
+import java.util.function.*;
+
+import static jlox.TokenType.*;
+
+// A function body that is only parsed and resolved when it is first accessed,
+// which in practice is the first call of the function.
+class LazyBody extends AbstractList<Stmt> {
+    private final Token name;
+    private final List<Token> tokens;
+    private final int start;
+    private final int end;
+    private Consumer<List<Stmt>> resolution = null;
+    private volatile List<Stmt> statements = null;
+
+    LazyBody(Token name, List<Token> tokens, int start, int end) {
+        this.name = name;
+        this.tokens = tokens;
+        this.start = start;
+        this.end = end;
+    }
+
+    public boolean isParsed() {
+        return statements != null;
+    }
+
+    public synchronized void deferResolution(Consumer<List<Stmt>> resolution) {
+        this.resolution = resolution;
+    }
+
+    private List<Stmt> statements() {
+        var statements = this.statements;
+        return statements != null ? statements : parse();
+    }
+
+    private synchronized List<Stmt> parse() {
+        if (statements != null) {
+            return statements;
+        }
+
+        ArrayList<Stmt> parsed = new ArrayList<>();
+        var errors = compile(parsed, true);
+        if (!errors.isEmpty()) {
+            Lox.replayErrors(errors);
+            throw new RuntimeError(name, "Could not compile body of '" + name.lexeme + "'");
+        }
+
+        resolution = null;
+        statements = parsed;
+        return parsed;
+    }
+
+    // Parses and resolves the body and the bodies nested in it into a tree that
+    // is thrown away, so its compile errors are reported before it runs while
+    // only a called body is kept. Returns whether there were none.
+    public synchronized boolean validate() {
+        if (statements != null) {
+            return true;
+        }
+
+        var errors = compile(new ArrayList<>(), false);
+        Lox.replayErrors(errors);
+        return errors.isEmpty();
+    }
+
+    private List<String> compile(List<Stmt> parsed, boolean lazyBodies) {
+        ArrayList<Token> body = new ArrayList<>(end - start + 1);
+        body.addAll(tokens.subList(start, end));
+        body.add(new Token(EOF, "", tokens.get(end).line()));
+
+        return Lox.collectErrors(() -> {
+            parsed.addAll(new Parser(body, lazyBodies).parse());
+            if (resolution != null) {
+                resolution.accept(parsed);
+            }
+        });
+    }
+
+    @Override
+    public Stmt get(int index) {
+        return statements().get(index);
+    }
+
+    @Override
+    public int size() {
+        return statements().size();
+    }
+}
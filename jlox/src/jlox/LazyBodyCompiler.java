@@ -0,0 +1,28 @@
+package jlox;
+
+import java.util.*;
+
+// Checks the lazy bodies of functions for compile errors without keeping what
+// they parse to, so that a script with lazy bodies fails to compile just like
+// one without.
+class LazyBodyCompiler extends NodeCounter {
+    private boolean failed = false;
+
+    // Returns whether every body compiled, the errors of the others are reported.
+    static boolean compile(List<Stmt> statements) {
+        var compiler = new LazyBodyCompiler();
+        compiler.count(statements);
+        return !compiler.failed;
+    }
+
+    @Override
+    public Void visit(Stmt.Function stmt) {
+        if (stmt.body instanceof LazyBody) {
+            // Bodies nested in it are checked along with it.
+            failed |= !((LazyBody) stmt.body).validate();
+        } else {
+            count(stmt.body);
+        }
+        return null;
+    }
+}
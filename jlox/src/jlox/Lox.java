@@ -2,22 +2,77 @@ package jlox;
 
 import java.io.*;
 import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.function.*;
 
 public class Lox {
+    static final String VERSION = "1.1";
+
     private static boolean hadError = false;
     private static boolean hadRuntimeError = false;
-    private static final Interpreter interpreter = new Interpreter();
+    private static Interpreter interpreter = new Interpreter();
+    private static final ThreadLocal<List<String>> deferredErrors = new ThreadLocal<>();
     private static boolean repl;
+    private static boolean parallelParse = false;
+    private static boolean lazyBodies = false;
+    private static boolean useCache = false;
+    private static Profiler profiler = null;
+    private static Path samples = null;
+    private static AllocationSites allocations = null;
+    private static Statistics statistics = null;
+    private static CountingInterpreter counter = null;
 
     public static void main(String[] args) {
-        if (args.length > 1) {
-            System.err.println("Usage: jlox [sourcefile]");
-            System.exit(69);
-        } else if (args.length == 1) {
+        // Before anything touches InterpreterMetrics, which reads this once.
+        if (Arrays.asList(args).contains("--jmx") || Arrays.asList(args).contains("--stats")) {
+            System.setProperty("jlox.metrics", "true");
+        }
+
+        ArrayList<String> files = new ArrayList<>();
+        boolean trackAllocations = false;
+        for (var arg : args) {
+            if (arg.equals("--parallel-parse")) {
+                parallelParse = true;
+            } else if (arg.equals("--lazy")) {
+                lazyBodies = true;
+            } else if (arg.equals("--cache")) {
+                useCache = true;
+            } else if (arg.equals("--profile")) {
+                profiler = new Profiler();
+            } else if (arg.equals("--count")) {
+                counter = new CountingInterpreter();
+            } else if (arg.equals("--stats")) {
+                statistics = new Statistics();
+            } else if (arg.equals("--alloc-sites")) {
+                trackAllocations = true;
+            } else if (arg.equals("--jmx")) {
+                InterpreterMetrics.register();
+            } else if (arg.startsWith("--sample=")) {
+                samples = Path.of(arg.substring("--sample=".length()));
+            } else if (arg.startsWith("--")) {
+                usage();
+            } else {
+                files.add(arg);
+            }
+        }
+
+        if (counter != null) {
+            interpreter = counter;
+        }
+        if (profiler != null) {
+            interpreter.profile(profiler);
+        }
+        if (trackAllocations) {
+            allocations = interpreter.trackAllocations();
+        }
+
+        if (files.size() > 1) {
+            usage();
+        } else if (files.size() == 1) {
             repl = false;
             try {
-                System.exit(runFile(args[0]));
+                System.exit(runFile(files.get(0)));
             } catch (IOException e) {
                 System.err.println("Error running from file: " + e.getLocalizedMessage());
                 System.exit(68);
@@ -33,16 +88,45 @@ public class Lox {
         }
     }
 
+    private static void usage() {
+        System.err.println("Usage: jlox [--parallel-parse] [--lazy] [--cache] [--profile] [--sample=file] [--jmx] [--alloc-sites] [--stats] [--count] [sourcefile]");
+        System.exit(69);
+    }
+
     private static int runFile(String path) throws IOException {
         try (FileInputStream stream = new FileInputStream(path)) {
             String source = new String(stream.readAllBytes(), Charset.defaultCharset());
-            run(source);
+            var file = Path.of(path).toAbsolutePath();
+            var sampler = samples != null ? new Sampler(interpreter.shadowStack(), Sampler.DEFAULT_INTERVAL_NANOS) : null;
+            if (sampler != null) {
+                sampler.start();
+            }
+            run(interpreter, source, file.getParent(), useCache ? ScriptCache.cacheFile(file) : null);
+            if (sampler != null) {
+                sampler.stop();
+                sampler.write(samples);
+            }
         }
+        printReports();
         return hadError ? 65
                 : hadRuntimeError ? 70
                 : 0;
     }
 
+    // Runs a whole script without the cache on a fresh interpreter, for
+    // harnesses that execute many scripts in one JVM, so no globals carry over
+    // from one script to the next. Returns whether it ran without any error.
+    static boolean runScript(String source, Path directory) {
+        return runScript(new Interpreter(), source, directory);
+    }
+
+    static boolean runScript(Interpreter interpreter, String source, Path directory) {
+        hadError = false;
+        hadRuntimeError = false;
+        run(interpreter, source, directory, null);
+        return !hadError && !hadRuntimeError;
+    }
+
     private static void runPrompt() throws IOException {
         BufferedReader reader = new BufferedReader(
                 new InputStreamReader(System.in)
@@ -54,31 +138,111 @@ public class Lox {
             if (line == null) {
                 break;
             }
-            run(line);
+            run(interpreter, line, Path.of("").toAbsolutePath(), null);
             hadError = false;
         }
+        printReports();
+    }
+
+    private static void printReports() {
+        if (statistics != null) {
+            statistics.print(System.err);
+        }
+        if (profiler != null) {
+            profiler.print(System.err);
+        }
+        if (allocations != null) {
+            allocations.print(System.err, 20);
+        }
+        if (counter != null) {
+            counter.print(System.err);
+        }
     }
 
-    private static void run(String source) {
-        Scanner scanner = new Scanner(source);
-        List<Token> tokens = scanner.scanTokens();
+    private static void run(Interpreter interpreter, String source, Path directory, Path cache) {
+        var statements = cache != null
+                ? phase("cache", () -> ScriptCache.read(cache, source, interpreter))
+                : null;
+        if (statements == null) {
+            statements = compile(interpreter, source);
+            if (statements == null) {
+                return;
+            }
+            if (cache != null && !lazyBodies) {
+                ScriptCache.write(cache, source, statements, interpreter);
+            }
+        }
+
+        var program = statements;
+        if (statistics != null) {
+            statistics.nodes(program);
+        }
+
+        phase("modules", () -> {
+            new ModuleLoader(interpreter, lazyBodies, useCache).load(directory, program);
+            return null;
+        });
         if (hadError) {
             return;
         }
 
-        Parser parser = new Parser(tokens);
-        var statements = parser.parse();
+        phase("interpret", () -> {
+            interpreter.interpret(program);
+            return null;
+        });
+    }
+
+    private static List<Stmt> compile(Interpreter interpreter, String source) {
+        List<Token> tokens = phase("scan", () -> new Scanner(source).scanTokens());
         if (hadError) {
-            return;
+            return null;
+        }
+        if (statistics != null) {
+            statistics.tokens(tokens);
         }
 
-        var resolver = new Resolver(interpreter);
-        resolver.resolve(statements);
+        var statements = phase("parse", () -> parallelParse
+                ? new ParallelParser(tokens, lazyBodies).parse()
+                : new Parser(tokens, lazyBodies).parse());
         if (hadError) {
-            return;
+            return null;
+        }
+
+        phase("resolve", () -> {
+            new Resolver(interpreter).resolve(statements);
+            return null;
+        });
+        if (hadError) {
+            return null;
         }
 
-        interpreter.interpret(statements);
+        if (lazyBodies) {
+            phase("lazy", () -> LazyBodyCompiler.compile(statements));
+            if (hadError) {
+                return null;
+            }
+        }
+
+        return statements;
+    }
+
+    private static <T> T phase(String name, Supplier<T> action) {
+        var event = new FlightEvents.Phase();
+        event.begin();
+        var measurement = statistics != null ? statistics.begin(name) : null;
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            if (InterpreterMetrics.ENABLED) {
+                InterpreterMetrics.phase(name, System.nanoTime() - start);
+            }
+            if (measurement != null) {
+                measurement.end();
+            }
+            event.phase = name;
+            event.commit();
+        }
     }
 
     static void error(int lineNo, String message) {
@@ -89,7 +253,7 @@ public class Lox {
         final String where = token.type.equals(TokenType.EOF)
                 ? " at end"
                 : " at '" + token.lexeme + '\'';
-        report(token.lineNo, where, message);
+        report(token.line(), where, message);
     }
 
     private static void reportError(String message) {
@@ -101,14 +265,65 @@ public class Lox {
     }
 
     private static void report(int lineNo, String where, String message) {
-        hadError = true;
         String errorMessage = "[line " + lineNo + "] Error" + where + ": " + message;
+        var deferred = deferredErrors.get();
+        if (deferred != null) {
+            deferred.add(errorMessage);
+            return;
+        }
+
+        hadError = true;
         reportError(errorMessage);
     }
 
+    // Errors reported by the action on this thread are collected instead of
+    // printed. Collections nest, replaying errors hands them to the enclosing one.
+    static List<String> collectErrors(Runnable action) {
+        ArrayList<String> errors = new ArrayList<>();
+        var enclosing = deferredErrors.get();
+        deferredErrors.set(errors);
+        try {
+            action.run();
+        } finally {
+            if (enclosing != null) {
+                deferredErrors.set(enclosing);
+            } else {
+                deferredErrors.remove();
+            }
+        }
+        return errors;
+    }
+
+    static void replayErrors(List<String> errors) {
+        var deferred = deferredErrors.get();
+        if (deferred != null) {
+            deferred.addAll(errors);
+            return;
+        }
+
+        for (var error : errors) {
+            hadError = true;
+            reportError(error);
+        }
+    }
+
     public static void runtimeError(RuntimeError error) {
+        if (InterpreterMetrics.ENABLED) {
+            InterpreterMetrics.runtimeErrors.increment();
+        }
+        var event = new FlightEvents.RuntimeError();
+        event.message = error.getLocalizedMessage();
+        event.line = error.line();
+        event.commit();
+
+        String errorMessage = error.getLocalizedMessage() + error.where();
+        var deferred = deferredErrors.get();
+        if (deferred != null) {
+            deferred.add(errorMessage);
+            return;
+        }
+
         hadRuntimeError = true;
-        String errorMessage = error.getLocalizedMessage() + "\n[line " + error.cause.lineNo + "]";
         reportError(errorMessage);
     }
 }
@@ -0,0 +1,182 @@
+package jlox;
+
+import java.util.*;
+
+// A growable array, created by Array(length) with that many zeros. Elements
+// are kept unboxed in a double[] until the first value that isn't a number is
+// stored, from then on in an Object[]. Indexing with a[i] and the get and set
+// methods are bounds checked.
+class LoxArray implements LoxObject, LoxIndexable {
+    // The most elements a Java array can reliably hold.
+    static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+    private double[] numbers;
+    private Object[] values = null;
+    private int size;
+    private final Heap heap;
+
+    LoxArray(int length, Heap heap) {
+        numbers = new double[Math.max(length, 8)];
+        size = length;
+        this.heap = heap;
+    }
+
+    static class Constructor implements LoxCallable {
+        @Override
+        public Object call(Interpreter interpreter, List<Object> arguments) {
+            var length = arguments.get(0);
+            if (!(length instanceof Double) || (Double) length < 0 || (Double) length % 1 != 0) {
+                throw new RuntimeError(null, "Array length must be a non-negative integer");
+            }
+            if ((Double) length > MAX_LENGTH) {
+                throw new RuntimeError(null, "Array length can't be more than " + MAX_LENGTH);
+            }
+            try {
+                return new LoxArray(((Double) length).intValue(), interpreter.heap());
+            } catch (OutOfMemoryError e) {
+                // A single allocation this large failing leaves the heap as it was.
+                throw new RuntimeError(null, "Not enough memory for an array of length " + ((Double) length).intValue());
+            }
+        }
+
+        @Override
+        public int arity() {
+            return 1;
+        }
+
+        @Override
+        public String toString() {
+            return "<native fn>";
+        }
+    }
+
+    @Override
+    public Object get(Token name) {
+        switch (name.lexeme) {
+            case "get": return new NativeFunction(1, arguments -> get(name, arguments.get(0)));
+            case "set": return new NativeFunction(2, arguments -> set(name, arguments.get(0), arguments.get(1)));
+            case "push": return new NativeFunction(1, arguments -> push(arguments.get(0)));
+            case "length": return new NativeFunction(0, arguments -> (double) length());
+            default: throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'");
+        }
+    }
+
+    // Arrays are locked like instance fields once they can be shared.
+    @Override
+    public Object get(Token bracket, Object index) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return at(index(bracket, index));
+            }
+        }
+        return at(index(bracket, index));
+    }
+
+    @Override
+    public Object set(Token bracket, Object index, Object value) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                store(index(bracket, index), value);
+            }
+            return value;
+        }
+        store(index(bracket, index), value);
+        return value;
+    }
+
+    Object push(Object value) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                append(value);
+            }
+            return null;
+        }
+        append(value);
+        return null;
+    }
+
+    private int length() {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return size;
+            }
+        }
+        return size;
+    }
+
+    Object[] toArray() {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return elements();
+            }
+        }
+        return elements();
+    }
+
+    private Object[] elements() {
+        var elements = new Object[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = at(i);
+        }
+        return elements;
+    }
+
+    private int index(Token bracket, Object index) {
+        if (!(index instanceof Double) || (Double) index % 1 != 0) {
+            throw new RuntimeError(bracket, "Array index must be an integer");
+        }
+        double i = (Double) index;
+        if (i < 0 || i >= size) {
+            throw new RuntimeError(bracket, "Array index " + Interpreter.stringify(index) + " out of bounds for length " + size);
+        }
+        return (int) i;
+    }
+
+    private Object at(int i) {
+        return numbers != null ? numbers[i] : values[i];
+    }
+
+    private void store(int i, Object value) {
+        if (numbers != null) {
+            if (value instanceof Double) {
+                numbers[i] = (Double) value;
+                return;
+            }
+            box();
+        }
+        values[i] = value;
+    }
+
+    private void append(Object value) {
+        int capacity = numbers != null ? numbers.length : values.length;
+        if (size == capacity) {
+            if (size == MAX_LENGTH) {
+                throw new RuntimeError(null, "Array length can't be more than " + MAX_LENGTH);
+            }
+            int grown = (int) Math.min(capacity * 2L, MAX_LENGTH);
+            if (numbers != null) {
+                numbers = Arrays.copyOf(numbers, grown);
+            } else {
+                values = Arrays.copyOf(values, grown);
+            }
+        }
+        store(size++, value);
+    }
+
+    private void box() {
+        values = new Object[numbers.length];
+        for (int i = 0; i < size; i++) {
+            values[i] = numbers[i];
+        }
+        numbers = null;
+    }
+
+    @Override
+    public String toString() {
+        var string = new StringJoiner(", ", "[", "]");
+        for (var element : toArray()) {
+            string.add(Interpreter.stringify(element));
+        }
+        return string.toString();
+    }
+}
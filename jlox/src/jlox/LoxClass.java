@@ -3,11 +3,11 @@ package jlox;
 import java.util.*;
 
 class LoxClass implements LoxCallable {
-    private final String name;
+    private final Token name;
     private final LoxClass superclass;
     private final Map<String, LoxFunction> methods;
 
-    public LoxClass(String name, LoxClass superclass, Map<String, LoxFunction> methods) {
+    public LoxClass(Token name, LoxClass superclass, Map<String, LoxFunction> methods) {
         this.name = name;
         this.superclass = superclass;
         this.methods = methods;
@@ -25,17 +25,30 @@ class LoxClass implements LoxCallable {
         return null;
     }
 
+    public Token name() {
+        return name;
+    }
+
     @Override
     public String toString() {
-        return name;
+        return name.lexeme;
     }
 
     @Override
     public Object call(Interpreter interpreter, List<Object> arguments) {
-        var instance = new LoxInstance(this);
+        var instance = new LoxInstance(this, interpreter.heap());
+        if (InterpreterMetrics.ENABLED) {
+            InterpreterMetrics.instances.increment();
+        }
+        var event = new FlightEvents.Instantiation();
+        if (event.isEnabled()) {
+            event.className = name.lexeme;
+            event.line = name.line();
+            event.commit();
+        }
         var initializer = findMethod("init");
         if (initializer != null) {
-            initializer.bind(instance).call(interpreter, arguments);
+            interpreter.call(initializer.bind(instance), arguments);
         }
 
         return instance;
@@ -0,0 +1,133 @@
+package jlox;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+// A Lox interpreter with its own globals, output and error sink. A context may
+// only be used by one thread at a time, but contexts share no mutable state
+// unless one was forked from another.
+public class LoxContext {
+    private final LoxEngine engine;
+    private final Interpreter interpreter;
+    private final PrintWriter out;
+    private final Consumer<String> errors;
+
+    LoxContext(LoxEngine engine, PrintWriter out, Consumer<String> errors, GlobalEnvironment globals) {
+        this(engine, out, errors, engine.newInterpreter(out, globals));
+    }
+
+    private LoxContext(LoxEngine engine, PrintWriter out, Consumer<String> errors, Interpreter interpreter) {
+        this.engine = engine;
+        this.interpreter = interpreter;
+        this.out = out;
+        this.errors = errors;
+    }
+
+    // A context on this context's globals with an interpreter of its own, so
+    // that a library loaded here once can be used from other threads.
+    public LoxContext fork(PrintWriter out, Consumer<String> errors) {
+        return new LoxContext(engine, out, errors, interpreter.fork(out));
+    }
+
+    // Runs a script, with imports relative to the working directory. Errors go
+    // to the error sink, returns whether there were none.
+    public boolean run(String source) {
+        return run(source, Path.of("").toAbsolutePath());
+    }
+
+    public boolean run(String source, Path directory) {
+        return report(Lox.collectErrors(() -> {
+            ArrayList<Stmt> statements = new ArrayList<>();
+            if (engine.compile(source, interpreter, statements)
+                    && loaded(directory, statements)) {
+                interpreter.interpret(statements);
+            }
+        }));
+    }
+
+    public boolean run(LoxProgram program) {
+        if (program.engine != engine) {
+            throw new IllegalArgumentException("Program was compiled by another engine");
+        }
+        return report(Lox.collectErrors(() -> interpreter.interpret(program.statements)));
+    }
+
+    private boolean loaded(Path directory, List<Stmt> statements) {
+        var reported = Lox.collectErrors(() -> new ModuleLoader(interpreter, engine.lazyBodies(), false).load(directory, statements));
+        Lox.replayErrors(reported);
+        return reported.isEmpty();
+    }
+
+    private boolean report(List<String> reported) {
+        out.flush();
+        reported.forEach(errors);
+        return reported.isEmpty();
+    }
+
+    // The value of a global variable, or null if it is not defined.
+    public Object get(String name) {
+        return interpreter.globals().get(name);
+    }
+
+    public boolean isDefined(String name) {
+        return interpreter.globals().isDefined(name);
+    }
+
+    // Defines a global variable. Java numbers become Lox numbers.
+    public void set(String name, Object value) {
+        interpreter.globals().define(name, value instanceof Number ? ((Number) value).doubleValue() : value);
+    }
+
+    // A global Lox function as one of the interfaces of java.util.function, for
+    // example DoubleUnaryOperator. The adapter runs the function on this
+    // context's interpreter, like the context it may only be used by one
+    // thread at a time. Runtime errors are thrown as LoxException.
+    public <T> T function(String name, Class<T> type) {
+        var function = interpreter.globals().get(name);
+        if (!(function instanceof LoxFunction)) {
+            throw new IllegalArgumentException(name + " is not a Lox function");
+        }
+        return FunctionalAdapters.adapt((LoxFunction) function, interpreter, type);
+    }
+
+    // A method of an instance in a global variable, bound to the instance.
+    public <T> T method(String instance, String method, Class<T> type) {
+        var object = interpreter.globals().get(instance);
+        if (!(object instanceof LoxInstance)) {
+            throw new IllegalArgumentException(instance + " is not a Lox instance");
+        }
+        var lox = (LoxInstance) object;
+        var function = lox.hasField(method) ? null : lox.klass().findMethod(method);
+        if (function == null) {
+            throw new IllegalArgumentException(instance + " has no method " + method);
+        }
+        return FunctionalAdapters.adapt(function.bind(lox), interpreter, type);
+    }
+
+    // Defines a global function that calls the handle. Lox numbers are passed as
+    // any primitive type and strings as Strings or chars, other objects the
+    // handle returns can have their public methods called from Lox.
+    public void expose(String name, MethodHandle handle) {
+        interpreter.globals().define(name, JavaInterop.function(name, handle, false));
+    }
+
+    // Defines a global function that calls a public static method.
+    public void expose(String name, Class<?> type, String method, Class<?>... parameterTypes)
+            throws NoSuchMethodException, IllegalAccessException {
+        var reflected = type.getMethod(method, parameterTypes);
+        if (!Modifier.isStatic(reflected.getModifiers())) {
+            throw new IllegalArgumentException("Method " + method + " is not static");
+        }
+        expose(name, MethodHandles.publicLookup().unreflect(reflected));
+    }
+
+    // Defines a global variable holding a Java object, whose public methods
+    // Lox can call.
+    public void expose(String name, Object object) {
+        interpreter.globals().define(name, JavaInterop.toLox(object));
+    }
+}
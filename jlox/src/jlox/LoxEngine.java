@@ -0,0 +1,72 @@
+package jlox;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+
+// Entry point for running Lox inside another Java program. An engine holds the
+// options its contexts share, each context has its own interpreter, globals,
+// output and error sink, so different threads can run separate contexts at the
+// same time.
+public class LoxEngine {
+    private final boolean lazyBodies;
+
+    public LoxEngine() {
+        this(false);
+    }
+
+    public LoxEngine(boolean lazyBodies) {
+        this.lazyBodies = lazyBodies;
+    }
+
+    public LoxContext createContext() {
+        return createContext(new PrintWriter(System.out), System.err::println);
+    }
+
+    public LoxContext createContext(PrintWriter out, Consumer<String> errors) {
+        return new LoxContext(this, out, errors, Interpreter.createGlobals());
+    }
+
+    // Scans, parses and resolves a script once. Compiled programs can't import
+    // modules, since a module runs once per interpreter that imports it.
+    public LoxProgram compile(String source) {
+        ArrayList<Stmt> statements = new ArrayList<>();
+        var errors = Lox.collectErrors(() -> compile(source, newInterpreter(null, null), statements));
+        if (errors.isEmpty() && statements.stream().anyMatch(statement -> statement instanceof Stmt.Import)) {
+            errors = List.of("Compiled programs can't import modules");
+        }
+        if (!errors.isEmpty()) {
+            throw new LoxException(errors);
+        }
+        return new LoxProgram(this, statements);
+    }
+
+    boolean compile(String source, Interpreter interpreter, List<Stmt> statements) {
+        ArrayList<Token> tokens = new ArrayList<>();
+        return succeeded(() -> tokens.addAll(new Scanner(source).scanTokens()))
+                && succeeded(() -> statements.addAll(new Parser(tokens, lazyBodies).parse()))
+                && succeeded(() -> new Resolver(interpreter).resolve(statements))
+                && (!lazyBodies || LazyBodyCompiler.compile(statements));
+    }
+
+    private static boolean succeeded(Runnable phase) {
+        var reported = Lox.collectErrors(phase);
+        Lox.replayErrors(reported);
+        return reported.isEmpty();
+    }
+
+    Interpreter newInterpreter(PrintWriter out, GlobalEnvironment globals) {
+        return new Interpreter(out, globals != null ? globals : Interpreter.createGlobals());
+    }
+
+    // Publishes the interpreter counters as the MBean 'jlox:type=Interpreter' on
+    // the platform MBean server, once per JVM. They count only when the JVM was
+    // started with -Djlox.metrics=true.
+    public static void registerMetrics() {
+        InterpreterMetrics.register();
+    }
+
+    boolean lazyBodies() {
+        return lazyBodies;
+    }
+}
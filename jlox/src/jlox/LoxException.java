@@ -0,0 +1,20 @@
+package jlox;
+
+import java.util.*;
+
+// Errors that kept a script from compiling, or a function called from Java
+// from returning, in the format the command line reports them.
+public class LoxException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> errors;
+
+    LoxException(List<String> errors) {
+        super(String.join("\n", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> errors() {
+        return errors;
+    }
+}
@@ -0,0 +1,96 @@
+package jlox;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Runs Lox tasks concurrently, each in a fresh context of its own: separate
+// globals and environments, sharing only the engine's compiled programs. Tasks
+// run on virtual threads where the JVM has them and on a pool with one thread
+// per core otherwise. At most maxTasks are queued or running at a time, submit
+// blocks until one of them finishes.
+public class LoxExecutor implements AutoCloseable {
+    private final LoxEngine engine;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public LoxExecutor(LoxEngine engine, int maxTasks) {
+        if (maxTasks <= 0) {
+            throw new IllegalArgumentException("maxTasks must be positive");
+        }
+        this.engine = engine;
+        this.executor = VirtualThreads.newExecutor(LoxExecutor::newPool);
+        this.permits = new Semaphore(maxTasks);
+    }
+
+    private static ExecutorService newPool() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            var thread = new Thread(runnable, "lox-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs a program, with globals defined up front, and collects its output.
+    public CompletableFuture<LoxResult> submit(LoxProgram program, Map<String, ?> globals) throws InterruptedException {
+        return submit(() -> {
+            var out = new StringWriter();
+            ArrayList<String> errors = new ArrayList<>();
+            var context = engine.createContext(new PrintWriter(out), errors::add);
+            globals.forEach(context::set);
+            context.run(program);
+            return new LoxResult(context, out.toString(), errors);
+        });
+    }
+
+    public CompletableFuture<LoxResult> submit(LoxProgram program) throws InterruptedException {
+        return submit(program, Map.of());
+    }
+
+    // Runs a program against the globals of a library context, in a fork of it.
+    // Like any use of the library this has to be called from the thread using
+    // it, the fork shares its globals before the task can see them.
+    public CompletableFuture<LoxResult> submit(LoxProgram program, LoxContext library) throws InterruptedException {
+        var out = new StringWriter();
+        ArrayList<String> errors = new ArrayList<>();
+        var context = library.fork(new PrintWriter(out), errors::add);
+        return submit(() -> {
+            context.run(program);
+            return new LoxResult(context, out.toString(), errors);
+        });
+    }
+
+    // Runs any work under the same limit, for tasks that set up their own
+    // contexts, for example to call functions a program defined.
+    public <T> CompletableFuture<T> submit(Callable<T> task) throws InterruptedException {
+        permits.acquire();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+        return result;
+    }
+
+    // Stops accepting tasks and waits for the submitted ones to finish. If the
+    // waiting thread is interrupted it stops waiting and keeps its interrupt.
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,18 +5,28 @@ import java.util.*;
 class LoxFunction implements LoxCallable {
     private final Stmt.Function declaration;
     private final Environment closure;
+    private final GlobalEnvironment globals;
     private final boolean isInitializer;
 
-    public LoxFunction(Stmt.Function declaration, Environment closure, boolean isInitializer) {
+    public LoxFunction(Stmt.Function declaration, Environment closure, GlobalEnvironment globals, boolean isInitializer) {
         this.declaration = declaration;
         this.closure = closure;
+        this.globals = globals;
         this.isInitializer = isInitializer;
     }
 
     public LoxFunction bind(LoxInstance instance) {
         var environment = new Environment(closure);
         environment.define(instance);
-        return new LoxFunction(declaration, environment, isInitializer);
+        return new LoxFunction(declaration, environment, globals, isInitializer);
+    }
+
+    public Stmt.Function declaration() {
+        return declaration;
+    }
+
+    GlobalEnvironment globals() {
+        return globals;
     }
 
     @Override
@@ -25,8 +35,32 @@ class LoxFunction implements LoxCallable {
         for (Object argument : arguments) {
             environment.define(argument);
         }
+        return run(interpreter, environment);
+    }
+
+    // Calls without a list of arguments, for adapters called from Java.
+    Object call(Interpreter interpreter) {
+        return run(interpreter, new Environment(closure));
+    }
+
+    Object call(Interpreter interpreter, Object argument) {
+        Environment environment = new Environment(closure);
+        environment.define(argument);
+        return run(interpreter, environment);
+    }
+
+    Object call(Interpreter interpreter, Object first, Object second) {
+        Environment environment = new Environment(closure);
+        environment.define(first);
+        environment.define(second);
+        return run(interpreter, environment);
+    }
+
+    // Runs the body in an environment holding the arguments. Initializers
+    // always return the instance they are bound to.
+    private Object run(Interpreter interpreter, Environment environment) {
         try {
-            interpreter.executeBlock(declaration.body, environment);
+            interpreter.executeBlock(declaration.body, environment, globals);
         } catch (Return result) {
             if (isInitializer) {
                 return closure.getAt(0, 0);
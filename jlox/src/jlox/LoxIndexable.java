@@ -0,0 +1,8 @@
+package jlox;
+
+// A value that can be indexed with a[i] and assigned with a[i] = v.
+interface LoxIndexable {
+    Object get(Token bracket, Object index);
+
+    Object set(Token bracket, Object index, Object value);
+}
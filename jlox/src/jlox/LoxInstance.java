@@ -2,15 +2,32 @@ package jlox;
 
 import java.util.*;
 
-class LoxInstance {
+class LoxInstance implements LoxObject {
     private final LoxClass klass;
     private final HashMap<String, Object> fields = new HashMap<>();
+    private final Heap heap;
 
-    public LoxInstance(LoxClass klass) {
+    public LoxInstance(LoxClass klass, Heap heap) {
         this.klass = klass;
+        this.heap = heap;
     }
 
+    public LoxClass klass() {
+        return klass;
+    }
+
+    // Fields are locked once instances can be shared between threads.
+    @Override
     public Object get(Token property) {
+        if (heap.isShared()) {
+            synchronized (fields) {
+                return find(property);
+            }
+        }
+        return find(property);
+    }
+
+    private Object find(Token property) {
         if (fields.containsKey(property.lexeme)) {
             return fields.get(property.lexeme);
         }
@@ -23,7 +40,22 @@ class LoxInstance {
         throw new RuntimeError(property, "Undefined property '" + property.lexeme + "'");
     }
 
+    public boolean hasField(String property) {
+        if (heap.isShared()) {
+            synchronized (fields) {
+                return fields.containsKey(property);
+            }
+        }
+        return fields.containsKey(property);
+    }
+
     public void set(String property, Object value) {
+        if (heap.isShared()) {
+            synchronized (fields) {
+                fields.put(property, value);
+            }
+            return;
+        }
         fields.put(property, value);
     }
 
@@ -0,0 +1,260 @@
+package jlox;
+
+import java.util.*;
+
+// A hash map, created by Map(). Keys may be any value except nil and are
+// compared like ==. The table uses open addressing with linear probing over
+// parallel arrays: number keys are stored as their raw bits, so they are never
+// boxed, and other keys are stored as they are next to their hash. Removal
+// shifts the following entries back instead of leaving tombstones.
+class LoxMap implements LoxObject, LoxIndexable {
+    private static final byte EMPTY = 0;
+    private static final byte NUMBER = 1;
+    private static final byte OBJECT = 2;
+
+    private byte[] kinds = new byte[8];
+    // The bits of a number key, the hash of any other key.
+    private long[] hashes = new long[8];
+    private Object[] keys = new Object[8];
+    private Object[] values = new Object[8];
+    private int size = 0;
+    private final Heap heap;
+
+    LoxMap(Heap heap) {
+        this.heap = heap;
+    }
+
+    static class Constructor implements LoxCallable {
+        @Override
+        public Object call(Interpreter interpreter, List<Object> arguments) {
+            return new LoxMap(interpreter.heap());
+        }
+
+        @Override
+        public int arity() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "<native fn>";
+        }
+    }
+
+    @Override
+    public Object get(Token name) {
+        switch (name.lexeme) {
+            case "get": return new NativeFunction(1, arguments -> get(name, arguments.get(0)));
+            case "set": return new NativeFunction(2, arguments -> set(name, arguments.get(0), arguments.get(1)));
+            case "has": return new NativeFunction(1, arguments -> has(name, arguments.get(0)));
+            case "remove": return new NativeFunction(1, arguments -> remove(name, arguments.get(0)));
+            case "size": return new NativeFunction(0, arguments -> (double) size());
+            case "keys": return new NativeFunction(0, arguments -> entries(true));
+            case "values": return new NativeFunction(0, arguments -> entries(false));
+            default: throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'");
+        }
+    }
+
+    // Maps are locked like instance fields once they can be shared.
+    @Override
+    public Object get(Token bracket, Object key) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return find(bracket, key);
+            }
+        }
+        return find(bracket, key);
+    }
+
+    @Override
+    public Object set(Token bracket, Object key, Object value) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                put(bracket, key, value);
+            }
+            return value;
+        }
+        put(bracket, key, value);
+        return value;
+    }
+
+    private Object has(Token name, Object key) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return slot(name, key) >= 0;
+            }
+        }
+        return slot(name, key) >= 0;
+    }
+
+    private Object remove(Token name, Object key) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return delete(name, key);
+            }
+        }
+        return delete(name, key);
+    }
+
+    private int size() {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return size;
+            }
+        }
+        return size;
+    }
+
+    private LoxArray entries(boolean ofKeys) {
+        if (heap.isShared()) {
+            synchronized (this) {
+                return collect(ofKeys);
+            }
+        }
+        return collect(ofKeys);
+    }
+
+    private LoxArray collect(boolean ofKeys) {
+        var entries = new LoxArray(0, heap);
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] != EMPTY) {
+                entries.push(ofKeys ? key(i) : values[i]);
+            }
+        }
+        return entries;
+    }
+
+    private Object find(Token token, Object key) {
+        int slot = slot(token, key);
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    private void put(Token token, Object key, Object value) {
+        int slot = slot(token, key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+
+        if ((size + 1) * 4 > kinds.length * 3) {
+            grow();
+            slot = slot(token, key);
+        }
+        slot = ~slot;
+        if (key instanceof Double) {
+            kinds[slot] = NUMBER;
+            hashes[slot] = Double.doubleToLongBits((Double) key);
+        } else {
+            kinds[slot] = OBJECT;
+            hashes[slot] = key.hashCode();
+            keys[slot] = key;
+        }
+        values[slot] = value;
+        size++;
+    }
+
+    private Object delete(Token token, Object key) {
+        int slot = slot(token, key);
+        if (slot < 0) {
+            return null;
+        }
+
+        var removed = values[slot];
+        int mask = kinds.length - 1;
+        int hole = slot;
+        for (int i = (hole + 1) & mask; kinds[i] != EMPTY; i = (i + 1) & mask) {
+            int home = home(kinds[i], hashes[i], mask);
+            // Entries whose probe started after the hole can't move into it.
+            boolean reachable = hole <= i ? home <= hole || home > i : home <= hole && home > i;
+            if (reachable) {
+                kinds[hole] = kinds[i];
+                hashes[hole] = hashes[i];
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        kinds[hole] = EMPTY;
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    // The slot holding the key, or the complement of the empty slot it belongs in.
+    private int slot(Token token, Object key) {
+        int mask = kinds.length - 1;
+        if (key instanceof Double) {
+            long bits = Double.doubleToLongBits((Double) key);
+            for (int i = home(NUMBER, bits, mask); ; i = (i + 1) & mask) {
+                if (kinds[i] == EMPTY) {
+                    return ~i;
+                }
+                if (kinds[i] == NUMBER && hashes[i] == bits) {
+                    return i;
+                }
+            }
+        }
+
+        if (key == null) {
+            throw new RuntimeError(token, "Map keys can't be nil");
+        }
+        int hash = key.hashCode();
+        for (int i = home(OBJECT, hash, mask); ; i = (i + 1) & mask) {
+            if (kinds[i] == EMPTY) {
+                return ~i;
+            }
+            if (kinds[i] == OBJECT && hashes[i] == hash && keys[i].equals(key)) {
+                return i;
+            }
+        }
+    }
+
+    private static int home(byte kind, long hash, int mask) {
+        int h = kind == NUMBER ? (int) (hash ^ (hash >>> 32)) : (int) hash;
+        h *= 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private Object key(int slot) {
+        return kinds[slot] == NUMBER ? Double.longBitsToDouble(hashes[slot]) : keys[slot];
+    }
+
+    private void grow() {
+        var oldKinds = kinds;
+        var oldHashes = hashes;
+        var oldKeys = keys;
+        var oldValues = values;
+        int capacity = oldKinds.length * 2;
+        kinds = new byte[capacity];
+        hashes = new long[capacity];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKinds.length; i++) {
+            if (oldKinds[i] == EMPTY) {
+                continue;
+            }
+            int slot = home(oldKinds[i], oldHashes[i], mask);
+            while (kinds[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            kinds[slot] = oldKinds[i];
+            hashes[slot] = oldHashes[i];
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        var string = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] != EMPTY) {
+                string.add(Interpreter.stringify(key(i)) + ": " + Interpreter.stringify(values[i]));
+            }
+        }
+        return string.toString();
+    }
+}
@@ -0,0 +1,6 @@
+package jlox;
+
+// A value with properties, like instances and the objects natives return.
+interface LoxObject {
+    Object get(Token name);
+}
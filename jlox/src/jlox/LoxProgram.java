@@ -0,0 +1,15 @@
+package jlox;
+
+import java.util.*;
+
+// A scanned, parsed and resolved script that contexts of the engine that
+// compiled it can run any number of times, also concurrently.
+public class LoxProgram {
+    final LoxEngine engine;
+    final List<Stmt> statements;
+
+    LoxProgram(LoxEngine engine, List<Stmt> statements) {
+        this.engine = engine;
+        this.statements = statements;
+    }
+}
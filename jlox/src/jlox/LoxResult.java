@@ -0,0 +1,33 @@
+package jlox;
+
+import java.util.*;
+
+// What running a program in its own context produced. The context stays
+// available to read the globals the program left behind.
+public class LoxResult {
+    private final LoxContext context;
+    private final String output;
+    private final List<String> errors;
+
+    LoxResult(LoxContext context, String output, List<String> errors) {
+        this.context = context;
+        this.output = output;
+        this.errors = List.copyOf(errors);
+    }
+
+    public boolean succeeded() {
+        return errors.isEmpty();
+    }
+
+    public String output() {
+        return output;
+    }
+
+    public List<String> errors() {
+        return errors;
+    }
+
+    public LoxContext context() {
+        return context;
+    }
+}
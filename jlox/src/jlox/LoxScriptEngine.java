@@ -0,0 +1,189 @@
+package jlox;
+
+import javax.script.*;
+import java.io.*;
+import java.util.*;
+
+// javax.script access to Lox. The engine scope bindings are the script's
+// globals, so variables a script defines are visible to the host afterwards.
+// Native functions like clock and Array come from a scope of the engine behind
+// the bindings, which a binding of the same name hides. Compiled scripts are
+// scanned, parsed and resolved once and can be evaluated against any bindings.
+public class LoxScriptEngine extends AbstractScriptEngine implements Compilable {
+    private final LoxScriptEngineFactory factory;
+    private final LoxEngine engine = new LoxEngine();
+    private final GlobalEnvironment natives = Interpreter.createGlobals();
+
+    LoxScriptEngine(LoxScriptEngineFactory factory) {
+        this.factory = factory;
+    }
+
+    private class CompiledLoxScript extends CompiledScript {
+        private final LoxProgram program;
+
+        CompiledLoxScript(LoxProgram program) {
+            this.program = program;
+        }
+
+        @Override
+        public Object eval(ScriptContext context) throws ScriptException {
+            var bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+            var writer = context.getWriter();
+            var out = writer instanceof PrintWriter ? (PrintWriter) writer : new PrintWriter(writer);
+            ArrayList<String> errors = new ArrayList<>();
+            var lox = new LoxContext(program.engine, out, errors::add, new BindingsEnvironment(bindings, natives));
+            if (!lox.run(program)) {
+                throw new ScriptException(String.join("\n", errors));
+            }
+            return null;
+        }
+
+        @Override
+        public ScriptEngine getEngine() {
+            return LoxScriptEngine.this;
+        }
+    }
+
+    // Globals backed by bindings, which may hold any kind of Java number, in
+    // front of the engine's natives. The bindings are locked once spawned
+    // functions share them.
+    private static class BindingsEnvironment extends GlobalEnvironment {
+        private final Bindings bindings;
+        private final GlobalEnvironment natives;
+        private boolean shared = false;
+
+        BindingsEnvironment(Bindings bindings, GlobalEnvironment natives) {
+            this.bindings = bindings;
+            this.natives = natives;
+        }
+
+        @Override
+        void share() {
+            natives.share();
+            shared = true;
+        }
+
+        @Override
+        public Object get(Token name) {
+            if (shared) {
+                synchronized (bindings) {
+                    return lookUp(name);
+                }
+            }
+            return lookUp(name);
+        }
+
+        private Object lookUp(Token name) {
+            if (!bindings.containsKey(name.lexeme)) {
+                return natives.get(name);
+            }
+            return toLox(bindings.get(name.lexeme));
+        }
+
+        @Override
+        public Object get(String name) {
+            if (shared) {
+                synchronized (bindings) {
+                    return lookUp(name);
+                }
+            }
+            return lookUp(name);
+        }
+
+        private Object lookUp(String name) {
+            if (!bindings.containsKey(name)) {
+                return natives.get(name);
+            }
+            return toLox(bindings.get(name));
+        }
+
+        @Override
+        public boolean isDefined(String name) {
+            if (shared) {
+                synchronized (bindings) {
+                    return bindings.containsKey(name) || natives.isDefined(name);
+                }
+            }
+            return bindings.containsKey(name) || natives.isDefined(name);
+        }
+
+        @Override
+        public void define(String name, Object value) {
+            if (shared) {
+                synchronized (bindings) {
+                    bindings.put(name, value);
+                }
+                return;
+            }
+            bindings.put(name, value);
+        }
+
+        @Override
+        public Object assign(Token name, Object value) {
+            if (shared) {
+                synchronized (bindings) {
+                    return store(name, value);
+                }
+            }
+            return store(name, value);
+        }
+
+        // Assigning a native hides it behind a binding, the engine's natives
+        // stay the same for every script.
+        private Object store(Token name, Object value) {
+            if (!bindings.containsKey(name.lexeme) && !natives.isDefined(name.lexeme)) {
+                throw undefined(name);
+            }
+            bindings.put(name.lexeme, value);
+            return value;
+        }
+
+        private static Object toLox(Object value) {
+            return value instanceof Number && !(value instanceof Double) ? ((Number) value).doubleValue() : value;
+        }
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        try {
+            return new CompiledLoxScript(engine.compile(script));
+        } catch (LoxException e) {
+            throw new ScriptException(e.getMessage());
+        }
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return compile(read(script));
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        return compile(script).eval(context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return eval(read(reader), context);
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+        var script = new StringWriter();
+        try {
+            reader.transferTo(script);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        return script.toString();
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+}
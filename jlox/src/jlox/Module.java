@@ -0,0 +1,47 @@
+package jlox;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+class Module {
+    enum State {
+        LOADING,
+        LOADED,
+        RUNNING,
+        DONE,
+    }
+
+    final Path path;
+    final GlobalEnvironment globals;
+    volatile State state = State.LOADING;
+    List<Stmt> statements = List.of();
+    List<Stmt.Import> imports = List.of();
+    List<String> errors = List.of();
+    IOException failure = null;
+
+    Module(Path path, GlobalEnvironment globals) {
+        this.path = path;
+        this.globals = globals;
+    }
+
+    // The names of the module's top-level variables, functions and classes.
+    List<String> declarations() {
+        ArrayList<String> names = new ArrayList<>();
+        for (var statement : statements) {
+            if (statement instanceof Stmt.Var) {
+                names.add(((Stmt.Var) statement).name.lexeme);
+            } else if (statement instanceof Stmt.Function) {
+                names.add(((Stmt.Function) statement).name.lexeme);
+            } else if (statement instanceof Stmt.Class) {
+                names.add(((Stmt.Class) statement).name.lexeme);
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        return "<module " + path + ">";
+    }
+}
@@ -0,0 +1,154 @@
+package jlox;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+class ModuleLoader {
+    private final Interpreter interpreter;
+    private final boolean lazyBodies;
+    private final boolean useCache;
+    private final Executor executor;
+    private final Phaser pending = new Phaser(1);
+
+    ModuleLoader(Interpreter interpreter, boolean lazyBodies, boolean useCache) {
+        this(interpreter, lazyBodies, useCache, ForkJoinPool.commonPool());
+    }
+
+    ModuleLoader(Interpreter interpreter, boolean lazyBodies, boolean useCache, Executor executor) {
+        this.interpreter = interpreter;
+        this.lazyBodies = lazyBodies;
+        this.useCache = useCache;
+        this.executor = executor;
+    }
+
+    // Scans, parses and resolves every module reachable from the given statements,
+    // each on its own task as soon as its import is discovered. Errors are reported
+    // afterwards in depth-first import order.
+    public void load(Path directory, List<Stmt> statements) {
+        var imports = importsOf(statements);
+        for (var stmt : imports) {
+            request(directory, stmt);
+        }
+        pending.arriveAndAwaitAdvance();
+
+        report(imports, new HashSet<>());
+    }
+
+    private static List<Stmt.Import> importsOf(List<Stmt> statements) {
+        return statements.stream()
+                .filter(statement -> statement instanceof Stmt.Import)
+                .map(statement -> (Stmt.Import) statement)
+                .collect(Collectors.toList());
+    }
+
+    private void request(Path directory, Stmt.Import stmt) {
+        var path = canonical(directory.resolve((String) stmt.path.literal));
+        var globals = Interpreter.createGlobals();
+        if (interpreter.heap().isShared()) {
+            // Functions of the module can end up in other threads.
+            globals.share();
+        }
+        var module = new Module(path, globals);
+        var existing = interpreter.modules().putIfAbsent(path, module);
+        if (existing != null) {
+            interpreter.resolveImport(stmt, existing);
+            return;
+        }
+
+        interpreter.resolveImport(stmt, module);
+        pending.register();
+        executor.execute(() -> {
+            try {
+                compile(module);
+            } finally {
+                pending.arriveAndDeregister();
+            }
+        });
+    }
+
+    private static Path canonical(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    private void compile(Module module) {
+        String source;
+        try {
+            source = Files.readString(module.path, Charset.defaultCharset());
+        } catch (IOException e) {
+            module.failure = e;
+            return;
+        }
+
+        var cache = ScriptCache.cacheFile(module.path);
+        var cached = useCache ? ScriptCache.read(cache, source, interpreter) : null;
+        if (cached != null) {
+            loaded(module, cached);
+            return;
+        }
+
+        ArrayList<Token> tokens = new ArrayList<>();
+        module.errors = Lox.collectErrors(() -> tokens.addAll(new Scanner(source).scanTokens()));
+        if (!module.errors.isEmpty()) {
+            return;
+        }
+
+        ArrayList<Stmt> statements = new ArrayList<>();
+        module.errors = Lox.collectErrors(() -> statements.addAll(new Parser(tokens, lazyBodies).parse()));
+        if (!module.errors.isEmpty()) {
+            return;
+        }
+
+        module.errors = Lox.collectErrors(() -> new Resolver(interpreter).resolve(statements));
+        if (!module.errors.isEmpty()) {
+            return;
+        }
+
+        if (lazyBodies) {
+            module.errors = Lox.collectErrors(() -> LazyBodyCompiler.compile(statements));
+            if (!module.errors.isEmpty()) {
+                return;
+            }
+        }
+
+        if (useCache && !lazyBodies) {
+            ScriptCache.write(cache, source, statements, interpreter);
+        }
+        loaded(module, statements);
+    }
+
+    private void loaded(Module module, List<Stmt> statements) {
+        module.statements = statements;
+        module.imports = importsOf(statements);
+        module.state = Module.State.LOADED;
+        for (var stmt : module.imports) {
+            request(module.path.getParent(), stmt);
+        }
+    }
+
+    private void report(List<Stmt.Import> imports, Set<Module> visited) {
+        for (var stmt : imports) {
+            var module = interpreter.importedModule(stmt);
+            if (!visited.add(module)) {
+                continue;
+            }
+
+            if (module.failure != null) {
+                Lox.error(stmt.path, "Can't read module: " + module.failure.getLocalizedMessage());
+            }
+            Lox.replayErrors(module.errors);
+            if (module.state == Module.State.LOADING) {
+                interpreter.modules().remove(module.path, module);
+            }
+
+            report(module.imports, visited);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package jlox;
+
+import java.util.*;
+
+// Counts the expressions and statements in syntax trees. Function bodies that
+// have not been parsed yet count as nothing.
+class NodeCounter implements ExprVisitor<Void>, StmtVisitor<Void> {
+    int expressions = 0;
+    int statements = 0;
+
+    public void count(List<? extends Stmt> statements) {
+        for (var statement : statements) {
+            count(statement);
+        }
+    }
+
+    private void count(Stmt stmt) {
+        if (stmt != null) {
+            statements++;
+            stmt.accept(this);
+        }
+    }
+
+    private void count(Expr expr) {
+        if (expr != null) {
+            expressions++;
+            expr.accept(this);
+        }
+    }
+
+    @Override
+    public Void visit(Expr.Assign expr) {
+        count(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Logical expr) {
+        count(expr.left);
+        count(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Binary expr) {
+        count(expr.left);
+        count(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Unary expr) {
+        count(expr.operand);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Call expr) {
+        count(expr.callee);
+        for (var argument : expr.arguments) {
+            count(argument);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Get expr) {
+        count(expr.object);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Set expr) {
+        count(expr.object);
+        count(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Index expr) {
+        count(expr.object);
+        count(expr.index);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.SetIndex expr) {
+        count(expr.object);
+        count(expr.index);
+        count(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Super expr) {
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Grouping expr) {
+        count(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.This expr) {
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Literal expr) {
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.Variable expr) {
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Block stmt) {
+        count(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Expression stmt) {
+        count(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.If stmt) {
+        count(stmt.condition);
+        count(stmt.thenBranch);
+        count(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.While stmt) {
+        count(stmt.condition);
+        count(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Print stmt) {
+        count(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Return stmt) {
+        count(stmt.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Var stmt) {
+        count(stmt.initializer);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Function stmt) {
+        if (!(stmt.body instanceof LazyBody) || ((LazyBody) stmt.body).isParsed()) {
+            count(stmt.body);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Class stmt) {
+        count(stmt.superclass);
+        count(stmt.methods);
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Import stmt) {
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+package jlox;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// parallelMap(array, fn), parallelForEach(array, fn) and
+// parallelReduce(array, initial, fn) split an array into chunks that run on the
+// common fork/join pool, each with an interpreter of its own.
+//
+// parallelReduce folds every chunk from its first element, combines the chunks
+// with fn in array order and finally combines initial with the result, so it
+// gives the same result as a fold from initial as long as fn is associative.
+// initial doesn't have to be an identity of fn, it is used exactly once.
+//
+// Only functions that can't change anything outside of themselves run in
+// parallel, see SideEffects: a function that assigns variables it doesn't
+// declare, stores properties or elements or calls a function that may or that
+// isn't known before it runs, runs sequentially on the calling thread instead,
+// as do natives and classes. Each such call counts in the metrics and records
+// a jlox.SequentialParallel event with the reason. What parallel functions
+// print can interleave.
+class Parallel implements LoxCallable {
+    enum Operation {
+        MAP, FOR_EACH, REDUCE
+    }
+
+    private final Operation operation;
+
+    Parallel(Operation operation) {
+        this.operation = operation;
+    }
+
+    private class Chunk extends RecursiveTask<Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final Interpreter interpreter;
+        private final LoxCallable function;
+        private final Object[] elements;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        Chunk(Interpreter interpreter, LoxCallable function, Object[] elements, Object[] results, int from, int to, int threshold) {
+            this.interpreter = interpreter;
+            this.function = function;
+            this.elements = elements;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Object compute() {
+            if (to - from <= threshold) {
+                return operation == Operation.REDUCE
+                        ? apply(interpreter.fork(), function, elements, results, elements[from], from + 1, to)
+                        : apply(interpreter.fork(), function, elements, results, null, from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            var left = new Chunk(interpreter, function, elements, results, from, middle, threshold);
+            var right = new Chunk(interpreter, function, elements, results, middle, to, threshold);
+            left.fork();
+            var rightResult = right.compute();
+            var leftResult = left.join();
+            return operation == Operation.REDUCE
+                    ? interpreter.fork().call(function, Arrays.asList(leftResult, rightResult))
+                    : null;
+        }
+    }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> arguments) {
+        if (!(arguments.get(0) instanceof LoxArray)) {
+            throw new RuntimeError(null, "Can only run parallel operations on arrays");
+        }
+        var function = arguments.get(arguments.size() - 1);
+        int arity = operation == Operation.REDUCE ? 2 : 1;
+        if (!(function instanceof LoxCallable) || ((LoxCallable) function).arity() != arity) {
+            throw new RuntimeError(null, "Expected a function with " + arity + (arity == 1 ? " parameter" : " parameters"));
+        }
+
+        var callable = (LoxCallable) function;
+        var elements = ((LoxArray) arguments.get(0)).toArray();
+        var results = operation == Operation.MAP ? new Object[elements.length] : null;
+        var initial = operation == Operation.REDUCE ? arguments.get(1) : null;
+
+        var sequential = elements.length < 2 ? null : sequential(interpreter, callable);
+        if (sequential != null) {
+            if (InterpreterMetrics.ENABLED) {
+                InterpreterMetrics.sequentialParallelCalls.increment();
+            }
+            var event = new FlightEvents.SequentialParallel();
+            if (event.shouldCommit()) {
+                event.function = callable.toString();
+                event.reason = sequential;
+                event.commit();
+            }
+        }
+
+        Object result;
+        if (elements.length < 2 || sequential != null) {
+            result = apply(interpreter, callable, elements, results, initial, 0, elements.length);
+        } else {
+            interpreter.share();
+            int threshold = Math.max(1, elements.length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+            result = ForkJoinPool.commonPool()
+                    .invoke(new Chunk(interpreter, callable, elements, results, 0, elements.length, threshold));
+            if (operation == Operation.REDUCE) {
+                result = interpreter.call(callable, Arrays.asList(initial, result));
+            }
+        }
+
+        if (operation != Operation.MAP) {
+            return result;
+        }
+        var mapped = new LoxArray(0, interpreter.heap());
+        for (var value : results) {
+            mapped.push(value);
+        }
+        return mapped;
+    }
+
+    // Why the function has to run on the calling thread, or null if it doesn't.
+    static String sequential(Interpreter interpreter, LoxCallable function) {
+        return function instanceof LoxFunction
+                ? SideEffects.of(interpreter, (LoxFunction) function)
+                : "not a Lox function";
+    }
+
+    private Object apply(Interpreter interpreter, LoxCallable function, Object[] elements, Object[] results, Object initial, int from, int to) {
+        var accumulator = initial;
+        for (int i = from; i < to; i++) {
+            switch (operation) {
+                case MAP:
+                    results[i] = interpreter.call(function, Arrays.asList(elements[i]));
+                    break;
+                case FOR_EACH:
+                    interpreter.call(function, Arrays.asList(elements[i]));
+                    break;
+                case REDUCE:
+                    accumulator = interpreter.call(function, Arrays.asList(accumulator, elements[i]));
+                    break;
+            }
+        }
+        return accumulator;
+    }
+
+    @Override
+    public int arity() {
+        return operation == Operation.REDUCE ? 3 : 2;
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
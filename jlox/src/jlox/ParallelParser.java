@@ -0,0 +1,115 @@
+package jlox;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+import static jlox.TokenType.*;
+
+class ParallelParser {
+    private static final int MIN_CHUNK_TOKENS = 2048;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final List<Token> tokens;
+    private final boolean lazyBodies;
+    private final ForkJoinPool pool;
+
+    ParallelParser(List<Token> tokens, boolean lazyBodies) {
+        this(tokens, lazyBodies, ForkJoinPool.commonPool());
+    }
+
+    ParallelParser(List<Token> tokens, boolean lazyBodies, ForkJoinPool pool) {
+        this.tokens = tokens;
+        this.lazyBodies = lazyBodies;
+        this.pool = pool;
+    }
+
+    public List<Stmt> parse() {
+        var chunks = split();
+        if (chunks.size() < 2) {
+            return new Parser(tokens, lazyBodies).parse();
+        }
+
+        var tasks = chunks.stream()
+                .map(chunk -> pool.submit(() -> parseChunk(chunk)))
+                .collect(Collectors.toList());
+
+        ArrayList<Stmt> statements = new ArrayList<>();
+        for (var task : tasks) {
+            var chunk = task.join();
+            Lox.replayErrors(chunk.errors);
+            statements.addAll(chunk.statements);
+        }
+        return statements;
+    }
+
+    private ParsedChunk parseChunk(List<Token> chunk) {
+        ArrayList<Stmt> statements = new ArrayList<>();
+        var errors = Lox.collectErrors(() -> statements.addAll(new Parser(chunk, lazyBodies).parse()));
+        return new ParsedChunk(statements, errors);
+    }
+
+    private static class ParsedChunk {
+        final List<Stmt> statements;
+        final List<String> errors;
+
+        private ParsedChunk(List<Stmt> statements, List<String> errors) {
+            this.statements = statements;
+            this.errors = errors;
+        }
+    }
+
+    List<List<Token>> split() {
+        var boundaries = declarationBoundaries(tokens);
+        if (boundaries.isEmpty()) {
+            return List.of(tokens);
+        }
+
+        int targetChunks = pool.getParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = Math.max(MIN_CHUNK_TOKENS, tokens.size() / targetChunks);
+
+        ArrayList<List<Token>> chunks = new ArrayList<>();
+        int start = 0;
+        for (int boundary : boundaries) {
+            if (boundary - start >= chunkSize) {
+                chunks.add(chunk(start, boundary));
+                start = boundary;
+            }
+        }
+        chunks.add(chunk(start, tokens.size() - 1));
+        return chunks;
+    }
+
+    private List<Token> chunk(int start, int end) {
+        ArrayList<Token> chunk = new ArrayList<>(end - start + 1);
+        chunk.addAll(tokens.subList(start, end));
+        chunk.add(new Token(EOF, "", tokens.get(end).line()));
+        return chunk;
+    }
+
+    // Indices of top-level 'fun', 'class' and 'import' keywords that directly follow
+    // a complete top-level statement. Any imbalance disables splitting so that the
+    // sequential parser gets to report it.
+    static List<Integer> declarationBoundaries(List<Token> tokens) {
+        ArrayList<Integer> boundaries = new ArrayList<>();
+        int depth = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            var type = tokens.get(i).type;
+            if (type.equals(LEFT_BRACE)) {
+                depth++;
+            } else if (type.equals(RIGHT_BRACE)) {
+                depth--;
+                if (depth < 0) {
+                    return List.of();
+                }
+            } else if (depth == 0 && i > 0 && (type.equals(FUN) || type.equals(CLASS) || type.equals(IMPORT))) {
+                var previous = tokens.get(i - 1).type;
+                if (previous.equals(SEMICOLON) || previous.equals(RIGHT_BRACE)) {
+                    boundaries.add(i);
+                }
+            }
+        }
+
+        return depth == 0 ? boundaries : List.of();
+    }
+}
@@ -11,10 +11,16 @@ class Parser {
     private static final Expr FALSE_EXPRESSION = new Expr.Literal(false);
 
     private final List<Token> tokens;
+    private final boolean lazyBodies;
     int current = 0;
 
     Parser(List<Token> tokens) {
+        this(tokens, false);
+    }
+
+    Parser(List<Token> tokens, boolean lazyBodies) {
         this.tokens = tokens;
+        this.lazyBodies = lazyBodies;
     }
 
     public List<Stmt> parse() {
@@ -40,6 +46,9 @@ class Parser {
             if (match(CLASS)) {
                 return classDeclaration();
             }
+            if (match(IMPORT)) {
+                return importDeclaration();
+            }
 
             return statement();
         } catch (ParseException e) {
@@ -65,16 +74,39 @@ class Parser {
         return new Stmt.Class(name, superclass, methods);
     }
 
+    private Stmt importDeclaration() throws ParseException {
+        var keyword = previous();
+        var path = consume(STRING, "Expected module path after 'import'");
+        consume(SEMICOLON, "Expected semicolon after import");
+        return new Stmt.Import(keyword, path);
+    }
+
     private Stmt.Function funDeclaration(String kind) throws ParseException {
         var name = consume(IDENTIFIER, "Expected " + kind + " name");
         consume(LEFT_PAREN, "Expected '(' after function name");
         var parameters = parameterList();
         consume(LEFT_BRACE, "Expected '{' after parameter list");
-        var body = block();
+        var body = lazyBodies ? skipBlock(name) : block();
 
         return new Stmt.Function(name, parameters, body);
     }
 
+    private List<Stmt> skipBlock(Token name) throws ParseException {
+        int start = current;
+        int depth = 1;
+        while (!isAtEnd()) {
+            if (check(LEFT_BRACE)) {
+                depth++;
+            } else if (check(RIGHT_BRACE) && --depth == 0) {
+                break;
+            }
+            advance();
+        }
+        var body = new LazyBody(name, tokens, start, current);
+        consume(RIGHT_BRACE, "Expected '}' after block");
+        return body;
+    }
+
     private List<Token> parameterList() throws ParseException {
         ArrayList<Token> parameters = new ArrayList<>();
         if (match(RIGHT_PAREN)) {
@@ -239,6 +271,10 @@ class Parser {
                 var get = (Expr.Get) expr;
                 return new Expr.Set(get.object, get.name, value);
             }
+            if (expr instanceof Expr.Index) {
+                var index = (Expr.Index) expr;
+                return new Expr.SetIndex(index.object, index.bracket, index.index, value);
+            }
 
             error(equals, "Invalid assignment target");
         }
@@ -327,6 +363,11 @@ class Parser {
             } else if (match(DOT)) {
                 var name = consume(IDENTIFIER, "Expected identifier after '.'");
                 expr = new Expr.Get(expr, name);
+            } else if (match(LEFT_BRACKET)) {
+                var bracket = previous();
+                var index = expression();
+                consume(RIGHT_BRACKET, "Expected ']' after index");
+                expr = new Expr.Index(expr, bracket, index);
             } else {
                 break;
             }
@@ -368,6 +409,7 @@ class Parser {
             switch (peek().type) {
                 case CLASS:
                 case FUN:
+                case IMPORT:
                 case VAR:
                 case IF:
                 case WHILE:
@@ -38,6 +38,21 @@ class PrettyPrinter implements ExprVisitor<String> {
                 + expr.value.accept(this));
     }
 
+    @Override
+    public String visit(Expr.Index expr) {
+        return parenthesize("index " + expr.object.accept(this) + "[" + expr.index.accept(this) + "]");
+    }
+
+    @Override
+    public String visit(Expr.SetIndex expr) {
+        return parenthesize("set "
+                + expr.object.accept(this)
+                + "["
+                + expr.index.accept(this)
+                + "]"
+                + expr.value.accept(this));
+    }
+
     @Override
     public String visit(Expr.Super expr) {
         return parenthesize("super." + expr.method.lexeme);
@@ -0,0 +1,135 @@
+package jlox;
+
+import com.sun.management.ThreadMXBean;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+
+// Counts calls, inclusive and self time and allocated bytes per called function,
+// class and native. Recursive calls only count towards the inclusive time of
+// their outermost call.
+class Profiler {
+    private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<Object, Entry> entries = new IdentityHashMap<>();
+    private final Map<String, Entry> functions = new LinkedHashMap<>();
+    private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+    private final long thread = Thread.currentThread().getId();
+
+    private static class Entry {
+        final String name;
+        final int line;
+        long calls = 0;
+        long inclusiveNanos = 0;
+        long selfNanos = 0;
+        long inclusiveBytes = 0;
+        long selfBytes = 0;
+        int active = 0;
+
+        Entry(String name, int line) {
+            this.name = name;
+            this.line = line;
+        }
+    }
+
+    private static class Frame {
+        final Entry entry;
+        final long start;
+        final long allocated;
+        long childNanos = 0;
+        long childBytes = 0;
+
+        Frame(Entry entry, long start, long allocated) {
+            this.entry = entry;
+            this.start = start;
+            this.allocated = allocated;
+        }
+    }
+
+    public Object call(Interpreter interpreter, LoxCallable function, List<Object> arguments) {
+        var entry = entry(function);
+        entry.calls++;
+        entry.active++;
+        var frame = new Frame(entry, System.nanoTime(), allocated());
+        stack.push(frame);
+        try {
+            return function.call(interpreter, arguments);
+        } finally {
+            long nanos = System.nanoTime() - frame.start;
+            long bytes = allocated() - frame.allocated;
+            stack.pop();
+            entry.active--;
+            entry.selfNanos += nanos - frame.childNanos;
+            entry.selfBytes += bytes - frame.childBytes;
+            if (entry.active == 0) {
+                entry.inclusiveNanos += nanos;
+                entry.inclusiveBytes += bytes;
+            }
+
+            var caller = stack.peek();
+            if (caller != null) {
+                caller.childNanos += nanos;
+                caller.childBytes += bytes;
+            }
+        }
+    }
+
+    // Bound methods are new objects on every access, so functions are looked up
+    // by their declaration.
+    private Entry entry(LoxCallable function) {
+        var key = function instanceof LoxFunction ? ((LoxFunction) function).declaration() : function;
+        var entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+
+        var name = name(function);
+        var line = line(function);
+        entry = functions.computeIfAbsent(name + ":" + line, ignored -> new Entry(name, line));
+        entries.put(key, entry);
+        return entry;
+    }
+
+    static String name(LoxCallable function) {
+        if (function instanceof LoxFunction) {
+            return ((LoxFunction) function).declaration().name.lexeme;
+        } else if (function instanceof LoxClass) {
+            return ((LoxClass) function).name().lexeme;
+        }
+        return "<native " + function.getClass().getSimpleName() + ">";
+    }
+
+    static int line(LoxCallable function) {
+        if (function instanceof LoxFunction) {
+            return ((LoxFunction) function).declaration().name.line();
+        } else if (function instanceof LoxClass) {
+            return ((LoxClass) function).name().line();
+        }
+        return 0;
+    }
+
+    private long allocated() {
+        return Math.max(0, threads.getThreadAllocatedBytes(thread));
+    }
+
+    public void print(PrintStream out) {
+        ArrayList<Entry> sorted = new ArrayList<>(functions.values());
+        sorted.sort(Comparator.comparingLong((Entry entry) -> entry.selfNanos).reversed());
+        long total = sorted.stream().mapToLong(entry -> entry.selfNanos).sum();
+
+        out.printf("%-32s %10s %12s %12s %7s %14s %14s%n",
+                "function", "calls", "incl ms", "self ms", "self %", "incl bytes", "self bytes");
+        for (var entry : sorted) {
+            var name = entry.line > 0 ? entry.name + " (line " + entry.line + ")" : entry.name;
+            out.printf("%-32s %10d %12.3f %12.3f %6.1f%% %14d %14d%n",
+                    name,
+                    entry.calls,
+                    entry.inclusiveNanos / 1e6,
+                    entry.selfNanos / 1e6,
+                    total > 0 ? 100. * entry.selfNanos / total : 0.,
+                    entry.inclusiveBytes,
+                    entry.selfBytes);
+        }
+    }
+}
@@ -12,6 +12,14 @@ class Resolver implements ExprVisitor<Void>, StmtVisitor<Void> {
         this.interpreter = interpreter;
     }
 
+    private Resolver(Resolver enclosing) {
+        this.interpreter = enclosing.interpreter;
+        for (var scope : enclosing.scopes) {
+            scopes.push(new HashMap<>(scope));
+        }
+        this.currentClass = enclosing.currentClass;
+    }
+
     private enum FunctionType {
         NONE,
         FUNCTION,
@@ -96,6 +104,21 @@ class Resolver implements ExprVisitor<Void>, StmtVisitor<Void> {
         return null;
     }
 
+    @Override
+    public Void visit(Expr.Index expr) {
+        resolve(expr.object);
+        resolve(expr.index);
+        return null;
+    }
+
+    @Override
+    public Void visit(Expr.SetIndex expr) {
+        resolve(expr.object);
+        resolve(expr.index);
+        resolve(expr.value);
+        return null;
+    }
+
     @Override
     public Void visit(Expr.Super expr) {
         if (currentClass == ClassType.NONE) {
@@ -227,16 +250,27 @@ class Resolver implements ExprVisitor<Void>, StmtVisitor<Void> {
     }
 
     private void resolveFunction(Stmt.Function function, FunctionType type) {
+        if (function.body instanceof LazyBody && !((LazyBody) function.body).isParsed()) {
+            var deferred = new Resolver(this);
+            ((LazyBody) function.body).deferResolution(
+                    body -> deferred.resolveFunction(function.parameters, body, type));
+            return;
+        }
+
+        resolveFunction(function.parameters, function.body, type);
+    }
+
+    private void resolveFunction(List<Token> parameters, List<Stmt> body, FunctionType type) {
         var enclosingFunction = currentFunction;
         currentFunction = type;
 
         beginScope();
-        for (var parameter : function.parameters) {
+        for (var parameter : parameters) {
             declare(parameter);
             define(parameter);
         }
 
-        resolve(function.body);
+        resolve(body);
         endScope();
 
         currentFunction = enclosingFunction;
@@ -288,4 +322,12 @@ class Resolver implements ExprVisitor<Void>, StmtVisitor<Void> {
 
         return null;
     }
+
+    @Override
+    public Void visit(Stmt.Import stmt) {
+        if (!scopes.isEmpty()) {
+            Lox.error(stmt.keyword, "Can only import at top level");
+        }
+        return null;
+    }
 }
@@ -7,4 +7,15 @@ public class RuntimeError extends RuntimeException {
         super(message);
         this.cause = cause;
     }
+
+    // The line the error was raised on, 0 for errors natives raise without
+    // knowing where they were called from.
+    int line() {
+        return cause != null ? cause.line() : 0;
+    }
+
+    // The line as reported after the message, nothing if it isn't known.
+    String where() {
+        return cause != null ? "\n[line " + cause.line() + "]" : "";
+    }
 }
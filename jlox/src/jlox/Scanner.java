@@ -6,7 +6,7 @@ class Scanner {
     private final String source;
     private int start = 0;
     private int current = 0;
-    private int line = 1;
+    private int line;
     private static final Map<String, TokenType> keywords;
 
     static {
@@ -18,6 +18,7 @@ class Scanner {
         keywords.put("for",    TokenType.FOR);
         keywords.put("fun",    TokenType.FUN);
         keywords.put("if",     TokenType.IF);
+        keywords.put("import", TokenType.IMPORT);
         keywords.put("nil",    TokenType.NIL);
         keywords.put("or",     TokenType.OR);
         keywords.put("print",  TokenType.PRINT);
@@ -30,7 +31,12 @@ class Scanner {
     }
 
     Scanner(String source) {
+        this(source, 1);
+    }
+
+    Scanner(String source, int line) {
         this.source = source;
+        this.line = line;
     }
 
     List<Token> scanTokens() {
@@ -40,7 +46,7 @@ class Scanner {
             addToken(tokens);
         }
 
-        tokens.add(new Token(TokenType.EOF, "", line));
+        tokens.add(new Token(TokenType.EOF, "", null, line, source.length()));
         return tokens;
     }
 
@@ -58,6 +64,8 @@ class Scanner {
             case ')': return token(TokenType.RIGHT_PAREN);
             case '{': return token(TokenType.LEFT_BRACE);
             case '}': return token(TokenType.RIGHT_BRACE);
+            case '[': return token(TokenType.LEFT_BRACKET);
+            case ']': return token(TokenType.RIGHT_BRACKET);
             case ',': return token(TokenType.COMMA);
             case '.': return token(TokenType.DOT);
             case '-': return token(TokenType.MINUS);
@@ -165,11 +173,11 @@ class Scanner {
     }
 
     private Token token(TokenType type) {
-        return new Token(type, source.substring(start, current), line);
+        return new Token(type, source.substring(start, current), null, line, start);
     }
 
     private Token token(TokenType type, Object literal) {
-        return new Token(type, source.substring(start, current), literal, line);
+        return new Token(type, source.substring(start, current), literal, line, start);
     }
 
     private char advance() {
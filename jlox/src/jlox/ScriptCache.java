@@ -0,0 +1,103 @@
+package jlox;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.zip.*;
+
+// Resolved syntax trees stored next to their source as '<name>.loxc', only with
+// --cache since it writes into the source directory. An entry is only used when
+// it was written by the same interpreter version for a source with the same
+// SHA-256 hash and its payload checksum matches.
+class ScriptCache {
+    private static final int MAGIC = 0x4C4F5843;
+    private static final int FORMAT = 2;
+
+    private ScriptCache() {
+    }
+
+    static Path cacheFile(Path source) {
+        return source.resolveSibling(source.getFileName() + "c");
+    }
+
+    static List<Stmt> read(Path cache, String source, Interpreter interpreter) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(cache);
+        } catch (IOException e) {
+            return null;
+        }
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC
+                    || in.readInt() != FORMAT
+                    || !in.readUTF().equals(Lox.VERSION)) {
+                return null;
+            }
+            var hash = new byte[32];
+            in.readFully(hash);
+            if (!Arrays.equals(hash, hash(source))) {
+                return null;
+            }
+
+            var payload = new byte[in.readInt()];
+            in.readFully(payload);
+            if (in.readLong() != checksum(payload)) {
+                return null;
+            }
+
+            var reader = new AstReader(new DataInputStream(new ByteArrayInputStream(payload)));
+            var statements = reader.read();
+            reader.resolve(interpreter);
+            return statements;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    static void write(Path cache, String source, List<Stmt> statements, Interpreter interpreter) {
+        try {
+            var payload = new ByteArrayOutputStream();
+            try (var out = new DataOutputStream(payload)) {
+                new AstWriter(out, interpreter).write(statements);
+            }
+
+            var entry = new ByteArrayOutputStream();
+            try (var out = new DataOutputStream(entry)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeUTF(Lox.VERSION);
+                out.write(hash(source));
+                out.writeInt(payload.size());
+                payload.writeTo(out);
+                out.writeLong(checksum(payload.toByteArray()));
+            }
+
+            var temporary = Files.createTempFile(cache.toAbsolutePath().getParent(), ".loxc", null);
+            try {
+                Files.write(temporary, entry.toByteArray());
+                Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            // The cache is an optimization, an unwritable location just means no cache.
+        }
+    }
+
+    private static byte[] hash(String source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long checksum(byte[] payload) {
+        var crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
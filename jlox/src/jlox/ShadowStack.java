@@ -0,0 +1,91 @@
+package jlox;
+
+import java.util.*;
+
+// The Lox frames the interpreter is currently in, with the line each of them
+// is at. Only the interpreter thread writes it, a sampler thread may read it at
+// any time and gets a snapshot that is at worst off by the frame being pushed
+// or popped. The line of a frame is the line of the call it is making, or the
+// function's declaration line for the innermost frame.
+class ShadowStack {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile LoxCallable[] functions = new LoxCallable[INITIAL_CAPACITY];
+    private volatile int[] lines = new int[INITIAL_CAPACITY];
+    private volatile int depth = 0;
+
+    public void push(LoxCallable function) {
+        int depth = this.depth + 1;
+        if (depth == functions.length) {
+            lines = Arrays.copyOf(lines, depth * 2);
+            functions = Arrays.copyOf(functions, depth * 2);
+        }
+        functions[depth] = function;
+        lines[depth] = Profiler.line(function);
+        this.depth = depth;
+    }
+
+    public void pop() {
+        depth--;
+    }
+
+    public void at(int line) {
+        lines[depth] = line;
+    }
+
+    // The frames outermost first, starting with the script itself. Only copies
+    // references, so a sample stays cheap, frames are named when written.
+    public Frames snapshot() {
+        int depth = this.depth;
+        var functions = this.functions;
+        var lines = this.lines;
+        depth = Math.min(depth, Math.min(functions.length, lines.length) - 1);
+
+        var frames = new Frames(depth + 1);
+        for (int i = 0; i <= depth; i++) {
+            var function = functions[i];
+            frames.functions[i] = function instanceof LoxFunction ? ((LoxFunction) function).declaration() : function;
+            frames.lines[i] = lines[i];
+        }
+        return frames;
+    }
+
+    static class Frames {
+        private final Object[] functions;
+        private final int[] lines;
+
+        private Frames(int size) {
+            this.functions = new Object[size];
+            this.lines = new int[size];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Frames)) {
+                return false;
+            }
+            var other = (Frames) o;
+            return Arrays.equals(functions, other.functions) && Arrays.equals(lines, other.lines);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(functions) + Arrays.hashCode(lines);
+        }
+
+        // Folded as 'name:line;name:line', with Lox functions sharing a frame
+        // across every closure and bound method of their declaration.
+        @Override
+        public String toString() {
+            var folded = new StringJoiner(";");
+            for (int i = 0; i < functions.length; i++) {
+                var function = functions[i];
+                var name = function == null ? "<script>"
+                        : function instanceof Stmt.Function ? ((Stmt.Function) function).name.lexeme
+                        : Profiler.name((LoxCallable) function);
+                folded.add(name + ":" + lines[i]);
+            }
+            return folded.toString();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jlox;
+
+import java.util.*;
+
+// Finds whether a function may change anything outside of itself, and where.
+// It may if it assigns variables it doesn't declare itself, globals or those of
+// an enclosing function, stores a property or an element, or calls a function
+// that may. Only calls of global functions are followed, as they are bound when
+// the analysis runs, and of clock and the Array and Map constructors; other
+// callees, methods, locals and classes, aren't known until they run. Scopes are
+// counted the way the Resolver opens them, so a resolved distance beyond the
+// current depth leaves the function.
+class SideEffects extends NodeCounter {
+    private final Interpreter interpreter;
+    private final GlobalEnvironment globals;
+    private final Set<Stmt.Function> visited;
+    private int depth = 0;
+    private String effect = null;
+
+    private SideEffects(Interpreter interpreter, GlobalEnvironment globals, Set<Stmt.Function> visited) {
+        this.interpreter = interpreter;
+        this.globals = globals;
+        this.visited = visited;
+    }
+
+    // The first side effect found, or null if there is none.
+    static String of(Interpreter interpreter, LoxFunction function) {
+        return of(interpreter, function, new HashSet<>());
+    }
+
+    private static String of(Interpreter interpreter, LoxFunction function, Set<Stmt.Function> visited) {
+        if (!visited.add(function.declaration())) {
+            // Recursion, the function is being looked at already.
+            return null;
+        }
+        var effects = new SideEffects(interpreter, function.globals(), visited);
+        effects.count(function.declaration().body);
+        return effects.effect;
+    }
+
+    private void found(Token token, String effect) {
+        if (this.effect == null) {
+            this.effect = effect + " at line " + token.line();
+        }
+    }
+
+    @Override
+    public Void visit(Expr.Assign expr) {
+        var coordinates = interpreter.coordinates(expr);
+        if (coordinates == null || coordinates.distance > depth) {
+            found(expr.name, "assigns '" + expr.name.lexeme + "'");
+        }
+        return super.visit(expr);
+    }
+
+    @Override
+    public Void visit(Expr.Call expr) {
+        if (effect == null) {
+            var callee = expr.callee instanceof Expr.Variable && interpreter.coordinates(expr.callee) == null
+                    ? globals.get(((Expr.Variable) expr.callee).name.lexeme)
+                    : null;
+            if (callee instanceof LoxFunction) {
+                effect = of(interpreter, (LoxFunction) callee, visited);
+            } else if (!(callee instanceof Clock || callee instanceof LoxArray.Constructor || callee instanceof LoxMap.Constructor)) {
+                found(expr.parens, "calls " + (expr.callee instanceof Expr.Variable
+                        ? "'" + ((Expr.Variable) expr.callee).name.lexeme + "'"
+                        : "a function it can't look into"));
+            }
+        }
+        return super.visit(expr);
+    }
+
+    @Override
+    public Void visit(Expr.Set expr) {
+        found(expr.name, "stores property '" + expr.name.lexeme + "'");
+        return super.visit(expr);
+    }
+
+    @Override
+    public Void visit(Expr.SetIndex expr) {
+        found(expr.bracket, "stores an element");
+        return super.visit(expr);
+    }
+
+    @Override
+    public Void visit(Stmt.Block stmt) {
+        depth++;
+        super.visit(stmt);
+        depth--;
+        return null;
+    }
+
+    // Unlike counting, this parses lazy bodies of nested functions.
+    @Override
+    public Void visit(Stmt.Function stmt) {
+        depth++;
+        count(stmt.body);
+        depth--;
+        return null;
+    }
+
+    @Override
+    public Void visit(Stmt.Class stmt) {
+        int scopes = stmt.superclass != null ? 2 : 1;
+        depth += scopes;
+        super.visit(stmt);
+        depth -= scopes;
+        return null;
+    }
+}
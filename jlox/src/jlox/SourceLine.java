@@ -0,0 +1,147 @@
+package jlox;
+
+// The line of the first token in a syntax tree node, or 0 if it has none.
+class SourceLine implements ExprVisitor<Integer>, StmtVisitor<Integer> {
+    private static final SourceLine instance = new SourceLine();
+
+    private SourceLine() {
+    }
+
+    static int of(Expr expr) {
+        return expr == null ? 0 : expr.accept(instance);
+    }
+
+    static int of(Stmt stmt) {
+        return stmt == null ? 0 : stmt.accept(instance);
+    }
+
+    private static int first(int line, int otherwise) {
+        return line > 0 ? line : otherwise;
+    }
+
+    @Override
+    public Integer visit(Expr.Assign expr) {
+        return expr.name.line();
+    }
+
+    @Override
+    public Integer visit(Expr.Logical expr) {
+        return first(of(expr.left), expr.operator.line());
+    }
+
+    @Override
+    public Integer visit(Expr.Binary expr) {
+        return first(of(expr.left), expr.operator.line());
+    }
+
+    @Override
+    public Integer visit(Expr.Unary expr) {
+        return expr.operator.line();
+    }
+
+    @Override
+    public Integer visit(Expr.Call expr) {
+        return first(of(expr.callee), expr.parens.line());
+    }
+
+    @Override
+    public Integer visit(Expr.Get expr) {
+        return first(of(expr.object), expr.name.line());
+    }
+
+    @Override
+    public Integer visit(Expr.Set expr) {
+        return first(of(expr.object), expr.name.line());
+    }
+
+    @Override
+    public Integer visit(Expr.Index expr) {
+        return first(of(expr.object), expr.bracket.line());
+    }
+
+    @Override
+    public Integer visit(Expr.SetIndex expr) {
+        return first(of(expr.object), expr.bracket.line());
+    }
+
+    @Override
+    public Integer visit(Expr.Super expr) {
+        return expr.keyword.line();
+    }
+
+    @Override
+    public Integer visit(Expr.Grouping expr) {
+        return of(expr.expression);
+    }
+
+    @Override
+    public Integer visit(Expr.This expr) {
+        return expr.keyword.line();
+    }
+
+    @Override
+    public Integer visit(Expr.Literal expr) {
+        return 0;
+    }
+
+    @Override
+    public Integer visit(Expr.Variable expr) {
+        return expr.name.line();
+    }
+
+    @Override
+    public Integer visit(Stmt.Block stmt) {
+        for (var statement : stmt.statements) {
+            int line = of(statement);
+            if (line > 0) {
+                return line;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public Integer visit(Stmt.Expression stmt) {
+        return of(stmt.expression);
+    }
+
+    @Override
+    public Integer visit(Stmt.If stmt) {
+        return of(stmt.condition);
+    }
+
+    @Override
+    public Integer visit(Stmt.While stmt) {
+        return of(stmt.condition);
+    }
+
+    @Override
+    public Integer visit(Stmt.Print stmt) {
+        return of(stmt.expression);
+    }
+
+    @Override
+    public Integer visit(Stmt.Return stmt) {
+        return stmt.keyword.line();
+    }
+
+    @Override
+    public Integer visit(Stmt.Var stmt) {
+        return stmt.name.line();
+    }
+
+    @Override
+    public Integer visit(Stmt.Function stmt) {
+        return stmt.name.line();
+    }
+
+    @Override
+    public Integer visit(Stmt.Class stmt) {
+        return stmt.name.line();
+    }
+
+    @Override
+    public Integer visit(Stmt.Import stmt) {
+        return stmt.keyword.line();
+    }
+}
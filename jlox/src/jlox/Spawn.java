@@ -0,0 +1,92 @@
+package jlox;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// spawn(function) runs a function without parameters on its own (virtual)
+// thread and returns a task whose join() waits for its result. A task that
+// fails and isn't joined has its error reported at the end of the run that
+// spawned it, or of the next one if it was still running.
+//
+// Spawned functions share globals, closures and instances with their spawner.
+// Globals are safe to share, and once the spawner's heap is shared instance
+// fields are only accessed under their lock. Environments need none, variables
+// are only ever defined in an environment by the thread that created it.
+class Spawn implements LoxCallable {
+    static class Task implements LoxObject {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean joined = false;
+        private Object result = null;
+        private RuntimeError error = null;
+
+        void run(Interpreter spawner, Interpreter interpreter, LoxCallable function) {
+            try {
+                result = interpreter.call(function, List.of());
+            } catch (RuntimeError e) {
+                // Reported by join, or by the spawner if the task is never
+                // joined, the worker has no error sink of its own.
+                error = e;
+            } finally {
+                done.countDown();
+            }
+            if (error != null) {
+                spawner.taskFailed(this);
+            }
+        }
+
+        // The error to report for a failed task nobody joined.
+        RuntimeError unjoinedFailure() {
+            return joined ? null : new RuntimeError(error.cause, "Spawned function failed: " + error.getMessage());
+        }
+
+        @Override
+        public Object get(Token name) {
+            if (!name.lexeme.equals("join")) {
+                throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'");
+            }
+            return new NativeFunction(0, arguments -> {
+                joined = true;
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeError(name, "Interrupted while joining");
+                }
+                if (error != null) {
+                    throw new RuntimeError(name, "Spawned function failed"
+                            + (error.cause != null ? " at line " + error.line() : "")
+                            + ": " + error.getMessage());
+                }
+                return result;
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "<task>";
+        }
+    }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> arguments) {
+        var function = arguments.get(0);
+        if (!(function instanceof LoxCallable) || ((LoxCallable) function).arity() != 0) {
+            throw new RuntimeError(null, "Can only spawn functions without parameters");
+        }
+
+        var task = new Task();
+        var worker = interpreter.fork();
+        VirtualThreads.start(() -> task.run(interpreter, worker, (LoxCallable) function));
+        return task;
+    }
+
+    @Override
+    public int arity() {
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
@@ -0,0 +1,84 @@
+package jlox;
+
+import com.sun.management.ThreadMXBean;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+
+// Wall time, bytes allocated by the running thread and garbage collections per
+// phase, plus the size of what was compiled. Phases that run more than once,
+// like in the prompt, add up.
+class Statistics {
+    private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+    private long tokens = 0;
+    private long expressions = 0;
+    private long statements = 0;
+    private final long executedBefore = InterpreterMetrics.statements.sum();
+
+    private static final int NANOS = 0;
+    private static final int BYTES = 1;
+    private static final int GC_COUNT = 2;
+    private static final int GC_MILLIS = 3;
+
+    class Measurement {
+        private final String phase;
+        private final long[] start = sample();
+
+        private Measurement(String phase) {
+            this.phase = phase;
+        }
+
+        public void end() {
+            var end = sample();
+            var total = phases.computeIfAbsent(phase, ignored -> new long[4]);
+            for (int i = 0; i < total.length; i++) {
+                total[i] += end[i] - start[i];
+            }
+        }
+    }
+
+    public Measurement begin(String phase) {
+        return new Measurement(phase);
+    }
+
+    private static long[] sample() {
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (var collector : collectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] {
+                System.nanoTime(),
+                Math.max(0, threads.getThreadAllocatedBytes(Thread.currentThread().getId())),
+                gcCount,
+                gcMillis
+        };
+    }
+
+    public void tokens(List<Token> tokens) {
+        this.tokens += tokens.size();
+    }
+
+    public void nodes(List<Stmt> statements) {
+        var counter = new NodeCounter();
+        counter.count(statements);
+        this.expressions += counter.expressions;
+        this.statements += counter.statements;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-12s %12s %14s %8s %8s%n", "phase", "ms", "bytes", "gcs", "gc ms");
+        for (var phase : phases.entrySet()) {
+            var total = phase.getValue();
+            out.printf("%-12s %12.3f %14d %8d %8d%n",
+                    phase.getKey(), total[NANOS] / 1e6, total[BYTES], total[GC_COUNT], total[GC_MILLIS]);
+        }
+        out.printf("tokens: %d, expressions: %d, statements: %d, statements executed: %d%n",
+                tokens, expressions, statements, InterpreterMetrics.statements.sum() - executedBefore);
+    }
+}
@@ -137,4 +137,19 @@ abstract class Stmt {
             return visitor.visit(this);
         }
     }
+
+    static class Import extends Stmt {
+        final Token keyword;
+        final Token path;
+
+        public Import(Token keyword, Token path) {
+            this.keyword = keyword;
+            this.path = path;
+        }
+
+        @Override
+        public <T> T accept(StmtVisitor<T> visitor) {
+            return visitor.visit(this);
+        }
+    }
 }
@@ -10,4 +10,5 @@ interface StmtVisitor<T> {
     T visit(Stmt.Var stmt);
     T visit(Stmt.Function stmt);
     T visit(Stmt.Class stmt);
+    T visit(Stmt.Import stmt);
 }
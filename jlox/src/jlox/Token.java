@@ -5,19 +5,30 @@ public class Token {
     final String lexeme;
     final Object literal;
     final int lineNo;
+    final int offset;
 
-    public Token(TokenType type, String lexeme, Object literal, int lineNo) {
+    public Token(TokenType type, String lexeme, Object literal, int lineNo, int offset) {
         this.type = type;
         this.lexeme = lexeme;
         this.literal = literal;
         this.lineNo = lineNo;
+        this.offset = offset;
+    }
+
+    public Token(TokenType type, String lexeme, Object literal, int lineNo) {
+        this(type, lexeme, literal, lineNo, -1);
     }
 
     public Token(TokenType type, String lexeme, int lineNo) {
-        this.type = type;
-        this.lexeme = lexeme;
-        this.literal = null;
-        this.lineNo = lineNo;
+        this(type, lexeme, null, lineNo, -1);
+    }
+
+    int line() {
+        return lineNo;
+    }
+
+    int end() {
+        return offset + lexeme.length();
     }
 
     @Override
@@ -0,0 +1,32 @@
+package jlox;
+
+import java.lang.reflect.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+// Virtual threads when the JVM running us has them, the build targets Java 11.
+class VirtualThreads {
+    private static final ExecutorService shared = newExecutor(() -> Executors.newCachedThreadPool(VirtualThreads::daemon));
+
+    private VirtualThreads() {
+    }
+
+    static ExecutorService newExecutor(Supplier<ExecutorService> fallback) {
+        try {
+            var virtualThreads = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreads.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return fallback.get();
+        }
+    }
+
+    static Thread daemon(Runnable runnable) {
+        var thread = new Thread(runnable, "lox-worker");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    static void start(Runnable task) {
+        shared.execute(task);
+    }
+}
@@ -16,12 +16,20 @@ public class GenerateAST {
             "Call       : Expr callee, Token parens, java.util.List<Expr> arguments",
             "Get        : Expr object, Token name",
             "Set        : Expr object, Token name, Expr value",
+            "Index      : Expr object, Token bracket, Expr index",
+            "SetIndex   : Expr object, Token bracket, Expr index, Expr value",
             "Super      : Token keyword, Token method",
             "Grouping   : Expr expression",
             "This       : Token keyword",
             "Literal    : Object value",
             "Variable   : Token name"
     );
+    // Fields of the expression base class, filled in after parsing.
+    static final List<String> EXPRESSION_FIELDS = List.of(
+            "// Where the Resolver found the local variable this expression refers to,",
+            "// null for globals and for expressions that don't refer to a variable.",
+            "Interpreter.VarCoordinates coordinates;"
+    );
     static final String STATEMENT_NAME = "Stmt";
     static final List<String> STATEMENT_CLASSES = List.of(
             "Block      : java.util.List<Stmt> statements",
@@ -32,7 +40,8 @@ public class GenerateAST {
             "Return     : Token keyword, Expr value",
             "Var        : Token name, Expr initializer",
             "Function   : Token name, java.util.List<Token> parameters, java.util.List<Stmt> body",
-            "Class      : Token name, Expr.Variable superclass, java.util.List<Stmt.Function> methods"
+            "Class      : Token name, Expr.Variable superclass, java.util.List<Stmt.Function> methods",
+            "Import     : Token keyword, Token path"
     );
 
     public static void main(String[] args) {
@@ -87,6 +96,12 @@ public class GenerateAST {
         writer.println("package jlox;");
         writer.println();
         writer.println("abstract class " + baseName + " {");
+        if (baseName.equals(EXPRESSION_NAME)) {
+            for (var line : EXPRESSION_FIELDS) {
+                writer.println(indentBy(1) + line);
+            }
+            writer.println();
+        }
         writer.println(
                 indentBy(1) + "abstract public <T> T accept(" + baseName + "Visitor<T> visitor);");
         for (var subclass : subclasses) {
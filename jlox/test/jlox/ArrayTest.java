@@ -0,0 +1,82 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+class ArrayTest {
+    private static String error(String source) {
+        var script = new Script();
+        assertFalse(script.run(source));
+        assertEquals(1, script.errors.size(), script.errors.toString());
+        return script.errors.get(0);
+    }
+
+    @Test
+    void startsWithZeros() {
+        assertEquals("[0, 0, 0]\n3\n", Script.print("var a = Array(3); print a; print a.length();"));
+    }
+
+    @Test
+    void indexesAndAssigns() {
+        assertEquals("3\n[1, 2, 3]\n", Script.print(
+                "var a = Array(3); for (var i = 0; i < 3; i = i + 1) a[i] = i + 1; print a[1] + 1; print a;"));
+    }
+
+    @Test
+    void assignmentIsAnExpression() {
+        assertEquals("5\n5\n", Script.print("var a = Array(1); print a[0] = 5; print a[0];"));
+    }
+
+    @Test
+    void holdsAnyValueAfterNumbers() {
+        assertEquals("[1, two, nil, true]\n", Script.print(
+                "var a = Array(1); a[0] = 1; a.push(\"two\"); a.push(nil); a.push(true); print a;"));
+    }
+
+    @Test
+    void pushGrows() {
+        assertEquals("100\n99\n", Script.print(
+                "var a = Array(0); for (var i = 0; i < 100; i = i + 1) a.push(i); print a.length(); print a.get(99);"));
+    }
+
+    @Test
+    void nestedIndexing() {
+        assertEquals("7\n", Script.print(
+                "var grid = Array(2); grid[0] = Array(2); grid[0][1] = 7; print grid[0][1];"));
+    }
+
+    @Test
+    void checksBounds() {
+        assertEquals("Array index 3 out of bounds for length 3\n[line 1]", error("var a = Array(3); print a[3];"));
+        assertEquals("Array index -1 out of bounds for length 3\n[line 1]", error("var a = Array(3); a[-1] = 1;"));
+    }
+
+    @Test
+    void checksIndexType() {
+        assertEquals("Array index must be an integer\n[line 1]", error("var a = Array(3); print a[0.5];"));
+        assertEquals("Array index must be an integer\n[line 1]", error("var a = Array(3); print a[\"0\"];"));
+    }
+
+    @Test
+    void rejectsBadLengths() {
+        assertEquals("Array length must be a non-negative integer\n[line 1]", error("Array(-1);"));
+        assertEquals("Array length must be a non-negative integer\n[line 1]", error("Array(1.5);"));
+        assertEquals("Array length can't be more than " + LoxArray.MAX_LENGTH + "\n[line 1]", error("Array(3000000000);"));
+    }
+
+    @Test
+    void onlyArraysAndMapsAreIndexable() {
+        assertEquals("Only arrays and maps can be indexed\n[line 1]", error("var s = \"abc\"; print s[0];"));
+    }
+
+    @Test
+    void printsWhileAnotherThreadPushes() {
+        assertEquals("20000\n", Script.print(
+                "var a = Array(0);"
+                + "fun fill() { for (var i = 0; i < 20000; i = i + 1) a.push(i); }"
+                + "var task = spawn(fill);"
+                + "for (var i = 0; i < 200; i = i + 1) { var s = \"\" + a; }"
+                + "task.join(); print a.length();"));
+    }
+}
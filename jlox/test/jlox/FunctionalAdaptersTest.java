@@ -0,0 +1,71 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.function.*;
+import org.junit.jupiter.api.*;
+
+class FunctionalAdaptersTest {
+    private static LoxContext context(String source) {
+        var script = new Script();
+        assertTrue(script.run(source), script.errors.toString());
+        return script.context;
+    }
+
+    @Test
+    void functionsAdaptToNumericInterfaces() {
+        var context = context("fun square(x) { return x * x; } fun add(a, b) { return a + b; } fun answer() { return 42; }");
+        assertEquals(9.0, context.function("square", DoubleUnaryOperator.class).applyAsDouble(3));
+        assertEquals(5.0, context.function("add", DoubleBinaryOperator.class).applyAsDouble(2, 3));
+        assertEquals(42.0, context.function("answer", DoubleSupplier.class).getAsDouble());
+    }
+
+    @Test
+    void functionsAdaptToObjectInterfaces() {
+        var context = context("fun greet(name) { return \"hello \" + name; } fun positive(n) { return n > 0; }");
+        assertEquals("hello lox", context.function("greet", Function.class).apply("lox"));
+        assertTrue(context.function("positive", Predicate.class).test(2));
+        assertFalse(context.function("positive", DoublePredicate.class).test(-2));
+    }
+
+    @Test
+    void instancesAreReturnedUnwrapped() {
+        var context = context("class Point { init(x) { this.x = x; return; } } fun make(x) { return Point(x); }");
+        var point = context.function("make", DoubleFunction.class).apply(1);
+        assertTrue(point instanceof LoxInstance);
+        assertEquals("Point instance", point.toString());
+    }
+
+    @Test
+    void methodsAreBoundToTheirInstance() {
+        var context = context("class Counter { init() { this.count = 0; } add(n) { this.count = this.count + n; return this.count; } }"
+                + "var counter = Counter();");
+        var add = context.method("counter", "add", DoubleUnaryOperator.class);
+        add.applyAsDouble(40);
+        assertEquals(42.0, add.applyAsDouble(2));
+        assertThrows(IllegalArgumentException.class, () -> context.method("counter", "missing", DoubleUnaryOperator.class));
+    }
+
+    @Test
+    void mismatchedAdaptersAreRejected() {
+        var context = context("fun square(x) { return x * x; } var number = 1;");
+        assertThrows(IllegalArgumentException.class, () -> context.function("square", DoubleBinaryOperator.class));
+        assertThrows(IllegalArgumentException.class, () -> context.function("square", Runnable.class));
+        assertThrows(IllegalArgumentException.class, () -> context.function("number", DoubleUnaryOperator.class));
+    }
+
+    @Test
+    void runtimeErrorsAreThrownWithTheirLine() {
+        var context = context("fun fail(x) {\n  return x + nil;\n}");
+        var error = assertThrows(LoxException.class, () -> context.function("fail", DoubleUnaryOperator.class).applyAsDouble(1));
+        assertEquals(List.of("Addition requires two numbers or at least one string as operands\n[line 2]"), error.errors());
+    }
+
+    @Test
+    void resultsThatArentNumbersAreReported() {
+        var context = context("fun name(x) { return \"lox\"; }");
+        var error = assertThrows(LoxException.class, () -> context.function("name", DoubleUnaryOperator.class).applyAsDouble(1));
+        assertEquals(List.of("<fn name> returned lox instead of a number"), error.errors());
+    }
+}
@@ -0,0 +1,75 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+class ImportTest {
+    @TempDir
+    Path directory;
+
+    private void module(String name, String source) throws IOException {
+        Files.writeString(directory.resolve(name), source);
+    }
+
+    private String run(String source) {
+        var script = new Script();
+        script.context.run(source, directory);
+        assertEquals(List.of(), script.errors);
+        return script.output();
+    }
+
+    @Test
+    void definesTheModulesDeclarations() throws IOException {
+        module("shapes.lox", "var sides = 4; fun area(n) { return n * n; } class Square { name() { return \"square\"; } }");
+        assertEquals("4\n9\nsquare\n", run("import \"shapes.lox\"; print sides; print area(3); print Square().name();"));
+    }
+
+    @Test
+    void runsTheModuleOnce() throws IOException {
+        module("once.lox", "print \"loading\"; var loaded = true;");
+        module("other.lox", "import \"once.lox\";");
+        assertEquals("loading\ntrue\n", run("import \"once.lox\"; import \"other.lox\"; print loaded;"));
+    }
+
+    @Test
+    void importerKeepsItsOwnBindings() throws IOException {
+        module("names.lox", "var name = \"module\"; var only = \"module\";");
+        assertEquals("mine\nmodule\nmine\n", run(
+                "var name = \"mine\"; var clock = \"mine\"; import \"names.lox\"; print name; print only; print clock;"));
+    }
+
+    @Test
+    void firstImportWins() throws IOException {
+        module("first.lox", "var value = 1;");
+        module("second.lox", "var value = 2;");
+        assertEquals("1\n", run("import \"first.lox\"; import \"second.lox\"; print value;"));
+    }
+
+    @Test
+    void doesNotReexportImports() throws IOException {
+        module("inner.lox", "var hidden = 1;");
+        module("outer.lox", "import \"inner.lox\"; var visible = hidden + 1;");
+        var script = new Script();
+        assertFalse(script.context.run("import \"outer.lox\"; print visible; print hidden;", directory));
+        assertEquals("2\n", script.output());
+        assertEquals(List.of("Undefined variable\n[line 1]"), script.errors);
+    }
+
+    @Test
+    void moduleFunctionsUseTheModulesGlobals() throws IOException {
+        module("counter.lox", "var count = 0; fun next() { count = count + 1; return count; }");
+        assertEquals("1\n2\n0\n", run("var count = 0; import \"counter.lox\"; print next(); print next(); print count;"));
+    }
+
+    @Test
+    void reportsMissingModules() {
+        var script = new Script();
+        assertFalse(script.context.run("import \"missing.lox\";", directory));
+        assertEquals(1, script.errors.size());
+    }
+}
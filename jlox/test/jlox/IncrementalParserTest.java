@@ -0,0 +1,136 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class IncrementalParserTest {
+    private static final String[] INSERTIONS = {
+            "\n", "7", "x", " + 1", "var y = 2;\n", "fun g() { return 1; }\n", "class C { m() {} }\n",
+            "{", "}", ";", "\"", "// comment\n", "/* */", "@", "print a;", "(", ")",
+    };
+
+    private static String program(int declarations) {
+        var source = new StringBuilder();
+        for (int i = 0; i < declarations; i++) {
+            source.append("fun f").append(i).append("(a) {\n")
+                    .append("  var x = a * ").append(i).append(";\n")
+                    .append("  if (x > 10) { return x; }\n")
+                    .append("  return a;\n")
+                    .append("}\n")
+                    .append("var v").append(i).append(" = f").append(i).append("(").append(i).append(");\n");
+        }
+        return source.toString();
+    }
+
+    @Test
+    void randomEditsMatchAFullParse() throws IOException {
+        var random = new Random(1234);
+        var expected = new StringBuilder(program(40));
+        var parser = new IncrementalParser(expected.toString());
+
+        for (int i = 0; i < 2000; i++) {
+            int offset = random.nextInt(expected.length() + 1);
+            int length = random.nextInt(4) == 0 ? Math.min(random.nextInt(6), expected.length() - offset) : 0;
+            var replacement = length > 0 && random.nextBoolean() ? "" : INSERTIONS[random.nextInt(INSERTIONS.length)];
+            expected.replace(offset, offset + length, replacement);
+            parser.edit(offset, length, replacement);
+
+            var source = expected.toString();
+            assertEquals(source, parser.source(), "source after edit " + i);
+            assertMatchesFullParse(source, parser, "edit " + i);
+
+            // Keep the buffer mostly valid, so most edits compare syntax trees.
+            if (i % 50 == 49) {
+                expected = new StringBuilder(program(20 + random.nextInt(40)));
+                parser.edit(0, parser.source().length(), expected.toString());
+            }
+        }
+    }
+
+    @Test
+    void errorLinesFollowEditsBeforeThem() {
+        var parser = new IncrementalParser("fun f() {}\nfun g() {\n  var b = ;\n}\n");
+        assertEquals(List.of("[line 3] Error at ';': Expected expression"), parser.errors());
+        parser.edit(0, 0, "\n\n");
+        assertEquals(List.of("[line 5] Error at ';': Expected expression"), parser.errors());
+        parser.edit(0, 1, "");
+        assertEquals(List.of("[line 4] Error at ';': Expected expression"), parser.errors());
+    }
+
+    @Test
+    void errorsInSeveralSegmentsMatchAFullParse() throws IOException {
+        var source = "fun f() {\n  print ;\n}\nprint 1 +;\nclass C { m( {} }\nfun g() { return 1; }\n";
+        var parser = new IncrementalParser(source);
+        assertMatchesFullParse(source, parser, "parsing");
+        assertEquals(3, parser.errors().size());
+
+        parser.edit(0, 0, "var a = (;\n");
+        assertMatchesFullParse(parser.source(), parser, "an edit before the errors");
+        assertEquals(4, parser.errors().size());
+
+        var fixed = parser.source().replace("print 1 +;", "print 1;");
+        parser.edit(0, parser.source().length(), fixed);
+        assertMatchesFullParse(fixed, parser, "fixing an error");
+        assertEquals(3, parser.errors().size());
+    }
+
+    @Test
+    void scanErrorsFollowEditsBeforeThem() {
+        var source = "fun f() {}\nfun g() {}\nfun h() { return 1; }\n";
+        var parser = new IncrementalParser(source);
+        parser.edit(source.indexOf('1'), 1, "@");
+        assertEquals(List.of("[line 3] Error: Unexpected character: @"), parser.errors());
+        parser.edit(0, 0, "\n\n");
+        assertEquals(List.of("[line 5] Error: Unexpected character: @"), parser.errors());
+    }
+
+    @Test
+    void tokenLinesFollowEditsBeforeThem() {
+        var parser = new IncrementalParser("var a = 1;\nfun b() {}\n");
+        var b = (Stmt.Function) parser.statements().get(1);
+        assertEquals(2, b.name.line());
+        parser.edit(0, 0, "\n\n\n");
+        assertEquals(5, b.name.line());
+    }
+
+    @Test
+    void unterminatedBlockWidensToTheEnd() throws IOException {
+        var source = "fun f() {\n  return 1;\n}\nvar a = 1;\nvar b = 2;\n";
+        var parser = new IncrementalParser(source);
+        parser.edit(source.indexOf('}'), 1, "");
+        assertFalse(parser.errors().isEmpty());
+        parser.edit(source.indexOf('}'), 0, "}");
+        assertEquals(List.of(), parser.errors());
+        assertMatchesFullParse(source, parser, "closing the block");
+    }
+
+    private static void assertMatchesFullParse(String source, IncrementalParser parser, String when) throws IOException {
+        var tokens = new ArrayList<Token>();
+        var scanErrors = Lox.collectErrors(() -> tokens.addAll(new Scanner(source).scanTokens()));
+        if (!scanErrors.isEmpty()) {
+            assertEquals(scanErrors, parser.errors(), "scanner errors after " + when);
+            return;
+        }
+
+        var statements = new ArrayList<Stmt>();
+        var parseErrors = Lox.collectErrors(() -> statements.addAll(new Parser(tokens).parse()));
+        if (!parseErrors.isEmpty()) {
+            assertEquals(parseErrors, parser.errors(), "parser errors after " + when);
+            return;
+        }
+
+        assertEquals(List.of(), parser.errors(), "errors after " + when);
+        assertArrayEquals(serialize(statements), serialize(parser.statements()), "syntax tree after " + when);
+    }
+
+    private static byte[] serialize(List<Stmt> statements) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            new AstWriter(out, new Interpreter()).write(statements);
+        }
+        return bytes.toByteArray();
+    }
+}
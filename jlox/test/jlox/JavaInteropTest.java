@@ -0,0 +1,151 @@
+package jlox;
+
+import static java.lang.invoke.MethodType.methodType;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.invoke.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class JavaInteropTest {
+    private static char initial(String word) {
+        return word.charAt(0);
+    }
+
+    private static boolean between(int value, long low, short high) {
+        return low <= value && value <= high;
+    }
+
+    private static String repeat(char c, byte times) {
+        return String.valueOf(c).repeat(times);
+    }
+
+    private static String cast(Object value) {
+        return (String) value;
+    }
+
+    private static void overflow() {
+        overflow();
+    }
+
+    private static List<Integer> range(int length) {
+        ArrayList<Integer> range = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
+    private static MethodHandle handle(String name, MethodType type) throws ReflectiveOperationException {
+        return MethodHandles.lookup().findStatic(JavaInteropTest.class, name, type);
+    }
+
+    @Test
+    void exposedHandlesConvertArgumentsAndResults() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("initial", handle("initial", methodType(char.class, String.class)));
+        script.context.expose("between", handle("between", methodType(boolean.class, int.class, long.class, short.class)));
+        script.context.expose("repeat", handle("repeat", methodType(String.class, char.class, byte.class)));
+        assertTrue(script.run("print initial(\"lox\"); print between(3, 1, 5); print repeat(\"a\", 3) + \"!\";"));
+        assertEquals("l\ntrue\naaa!\n", script.output());
+    }
+
+    @Test
+    void exposedStaticMethodsAreCallable() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("hypot", Math.class, "hypot", double.class, double.class);
+        script.context.expose("parse", Integer.class, "parseInt", String.class);
+        assertTrue(script.run("print hypot(3, 4); print parse(\"41\") + 1;"));
+        assertEquals("5\n42\n", script.output());
+    }
+
+    @Test
+    void onlyStaticMethodsCanBeExposedByName() {
+        var script = new Script();
+        assertThrows(IllegalArgumentException.class, () -> script.context.expose("length", String.class, "length"));
+        assertThrows(NoSuchMethodException.class, () -> script.context.expose("nope", Math.class, "nope"));
+    }
+
+    @Test
+    void exposedObjectsHaveTheirMethodsAsProperties() {
+        var joiner = new StringJoiner(", ");
+        var script = new Script();
+        script.context.expose("joiner", joiner);
+        assertTrue(script.run("joiner.add(\"a\").add(\"b\"); print joiner.length(); print joiner;"));
+        assertEquals("4\na, b\n", script.output());
+        assertEquals("a, b", joiner.toString());
+    }
+
+    @Test
+    void returnedObjectsAreWrapped() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("range", handle("range", methodType(List.class, int.class)));
+        assertTrue(script.run("var r = range(4); print r.size(); print r;"));
+        assertEquals("4\n[0, 1, 2, 3]\n", script.output());
+    }
+
+    @Test
+    void overloadedMethodsAreReported() {
+        var script = new Script();
+        script.context.expose("builder", new StringBuilder());
+        assertFalse(script.run("builder.append(\"x\");"));
+        assertEquals(List.of("Java method 'append' is overloaded\n[line 1]"), script.errors);
+    }
+
+    @Test
+    void wrongArgumentsAreReported() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("initial", handle("initial", methodType(char.class, String.class)));
+        script.context.expose("repeat", handle("repeat", methodType(String.class, char.class, byte.class)));
+        assertFalse(script.run("initial(1);"));
+        assertFalse(script.run("repeat(\"ab\", 2);"));
+        assertFalse(script.run("initial(\"\");"));
+        assertEquals(3, script.errors.size());
+        assertTrue(script.errors.get(0).startsWith("Expected a string but got 1"), script.errors.get(0));
+        assertTrue(script.errors.get(1).startsWith("Expected a single character but got ab"), script.errors.get(1));
+        assertTrue(script.errors.get(2).startsWith("Java method 'initial' threw java.lang.StringIndexOutOfBoundsException"), script.errors.get(2));
+    }
+
+    @Test
+    void integersMustBeWholeAndInRange() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("between", handle("between", methodType(boolean.class, int.class, long.class, short.class)));
+        script.context.expose("repeat", handle("repeat", methodType(String.class, char.class, byte.class)));
+        script.context.set("nan", Double.NaN);
+        assertTrue(script.run("print between(-2147483648, -9007199254740992, 32767);"));
+        assertEquals("true\n", script.output());
+        for (var call : List.of("between(2.7, 1, 5)", "between(nan, 1, 5)", "between(2147483648, 1, 5)",
+                "between(1, 9223372036854775808, 5)", "between(1, 1, 32768)", "repeat(\"a\", 128)", "repeat(\"a\", -129)")) {
+            script.errors.clear();
+            assertFalse(script.run(call + ";"), call);
+            assertEquals(1, script.errors.size(), call);
+            assertTrue(script.errors.get(0).startsWith("Expected an integer in "), script.errors.get(0));
+        }
+    }
+
+    @Test
+    void exceptionsOfTheMethodKeepTheirMessage() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("cast", handle("cast", methodType(String.class, Object.class)));
+        script.context.expose("range", handle("range", methodType(List.class, int.class)));
+        assertFalse(script.run("cast(1);"));
+        assertFalse(script.run("range(1).add(\"x\", 2);"));
+        assertTrue(script.errors.get(0).startsWith("Java method 'cast' threw java.lang.ClassCastException"), script.errors.get(0));
+        assertTrue(script.errors.get(1).startsWith("Java method 'add' is overloaded"), script.errors.get(1));
+    }
+
+    @Test
+    void argumentsAreCheckedAgainstParameterTypes() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("size", MethodHandles.publicLookup().findVirtual(List.class, "size", methodType(int.class)));
+        assertFalse(script.run("size(1);"));
+        assertEquals(List.of("Wrong argument type for Java method 'size': expected List but got 1\n[line 1]"), script.errors);
+    }
+
+    @Test
+    void errorsAreNotScriptErrors() throws ReflectiveOperationException {
+        var script = new Script();
+        script.context.expose("overflow", handle("overflow", methodType(void.class)));
+        assertThrows(StackOverflowError.class, () -> script.run("overflow();"));
+    }
+}
@@ -0,0 +1,75 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+class LazyBodyTest {
+    private final LoxEngine engine = new LoxEngine(true);
+    private final Script script = new Script(engine);
+
+    @Test
+    void calledBodiesRun() {
+        assertTrue(script.run("fun add(a, b) { var sum = a + b; return sum; } print add(1, 2);"));
+        assertEquals("3\n", script.output());
+    }
+
+    @Test
+    void uncalledBodyWithSyntaxErrorFails() {
+        assertFalse(script.run("print \"ran\";\nfun bad() { var x = ; }"));
+        assertEquals("", script.output());
+        assertEquals(List.of("[line 2] Error at ';': Expected expression"), script.errors);
+    }
+
+    @Test
+    void uncalledBodyWithResolverErrorFails() {
+        assertFalse(script.run("fun bad() {\n return this;\n}"));
+        assertEquals(List.of("[line 2] Error at 'this': Can't use 'this' outside of a class"), script.errors);
+    }
+
+    @Test
+    void nestedUncalledBodyFails() {
+        assertFalse(script.run("fun outer() { fun inner() { var a = 1; var a = 2; } print \"ran\"; }\nouter();"));
+        assertEquals("", script.output());
+        assertEquals(1, script.errors.size());
+    }
+
+    @Test
+    void everyUncalledMethodIsChecked() {
+        assertFalse(script.run("class Broken { method() { var = 1; } other() { print ; } }"));
+        assertEquals(2, script.errors.size());
+    }
+
+    @Test
+    void uncalledBodyOfAModuleFailsBeforeTheImporterRuns(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve("broken.lox"), "fun bad() {\n var x = ;\n}");
+        assertFalse(script.context.run("print \"ran\"; import \"broken.lox\";", directory));
+        assertEquals("", script.output());
+        assertEquals(1, script.errors.size());
+        assertTrue(script.errors.get(0).startsWith("[line 2] Error at ';'"), script.errors.get(0));
+    }
+
+    @Test
+    void programsWithBrokenBodiesDontCompile() {
+        var error = assertThrows(LoxException.class, () -> engine.compile("fun bad() { print ; }"));
+        assertEquals(1, error.errors().size());
+    }
+
+    @Test
+    void checkedBodiesStayUnparsed() {
+        assertTrue(script.run("fun unused() { var a = 1; return a; }"));
+        var body = ((LoxFunction) script.context.get("unused")).declaration().body;
+        assertFalse(((LazyBody) body).isParsed());
+    }
+
+    @Test
+    void nonLazyRunFailsTheSameWay() {
+        var eager = new Script();
+        assertFalse(eager.run("fun bad() { var x = ; }\nprint \"ran\";"));
+        assertEquals(List.of("[line 1] Error at ';': Expected expression"), eager.errors);
+    }
+}
@@ -0,0 +1,107 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.lang.management.*;
+import java.lang.ref.*;
+import java.util.*;
+import javax.management.*;
+import org.junit.jupiter.api.*;
+
+class LoxEngineTest {
+    private final LoxEngine engine = new LoxEngine();
+    private final StringWriter output = new StringWriter();
+    private final ArrayList<String> errors = new ArrayList<>();
+
+    private LoxContext context() {
+        return engine.createContext(new PrintWriter(output), errors::add);
+    }
+
+    @Test
+    void runsCompiledProgramInSeveralContexts() {
+        var program = engine.compile("var total = 0; fun add(n) { var local = n; total = total + local; } add(2); add(3); print total;");
+        var first = context();
+        var second = context();
+        assertTrue(first.run(program));
+        assertTrue(first.run(program));
+        assertTrue(second.run(program));
+        assertEquals("5\n5\n5\n", output.toString());
+        assertEquals(5.0, second.get("total"));
+    }
+
+    @Test
+    void keepsGlobalsBetweenRuns() {
+        var lox = context();
+        assertTrue(lox.run("var greeting = \"hello\";"));
+        assertTrue(lox.run("print greeting + \" world\";"));
+        assertEquals("hello world\n", output.toString());
+    }
+
+    @Test
+    void forkedContextsShareTheLibrarysGlobals() throws InterruptedException {
+        var library = context();
+        assertTrue(library.run("var calls = 0; fun square(n) { calls = calls + 1; return n * n; }"));
+        var program = engine.compile("print square(7);");
+
+        var outputs = new StringWriter[4];
+        var threads = new Thread[outputs.length];
+        for (int i = 0; i < threads.length; i++) {
+            var out = outputs[i] = new StringWriter();
+            var fork = library.fork(new PrintWriter(out), errors::add);
+            threads[i] = new Thread(() -> fork.run(program));
+            threads[i].start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        for (var out : outputs) {
+            assertEquals("49\n", out.toString());
+        }
+        assertEquals(List.of(), errors);
+        assertTrue(library.run("print calls > 0;"));
+        assertEquals("true\n", output.toString());
+    }
+
+    @Test
+    void reportsCompileErrors() {
+        var error = assertThrows(LoxException.class, () -> engine.compile("print ;"));
+        assertEquals(1, error.errors().size());
+    }
+
+    @Test
+    void reportsRuntimeErrorsToTheContext() {
+        assertFalse(context().run("print undefined;"));
+        assertEquals(1, errors.size());
+        assertEquals("Undefined variable\n[line 1]", errors.get(0));
+    }
+
+    @Test
+    void rejectsProgramsOfOtherEngines() {
+        var program = new LoxEngine().compile("print 1;");
+        assertThrows(IllegalArgumentException.class, () -> context().run(program));
+    }
+
+    @Test
+    void doesNotKeepCompiledPrograms() throws InterruptedException {
+        var program = new WeakReference<>(engine.compile("{ var local = 1; print local; }"));
+        assertTrue(context().run(program.get()));
+        for (int i = 0; i < 50 && program.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(program.get());
+    }
+
+    @Test
+    void registersTheMetricsMBean() throws JMException {
+        var name = new ObjectName("jlox:type=Interpreter");
+        LoxEngine.registerMetrics();
+        LoxEngine.registerMetrics();
+        var server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+        assertTrue(context().run("fun f() {} f();"));
+        assertTrue(server.getAttribute(name, "Calls") instanceof Long);
+    }
+}
@@ -0,0 +1,52 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+
+class LoxExecutorTest {
+    private final LoxEngine engine = new LoxEngine();
+
+    @Test
+    void runsProgramsInFreshContexts() throws Exception {
+        var program = engine.compile("var total = base; for (var i = 0; i < 10; i = i + 1) total = total + i; print total;");
+        try (var executor = new LoxExecutor(engine, 8)) {
+            ArrayList<CompletableFuture<LoxResult>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(program, Map.of("base", i)));
+            }
+            for (int i = 0; i < 100; i++) {
+                var result = results.get(i).get();
+                assertTrue(result.succeeded(), result.errors().toString());
+                assertEquals((i + 45) + "\n", result.output());
+            }
+        }
+    }
+
+    @Test
+    void sharesANeverSharedLibraryBetweenTasks() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            var library = engine.createContext(new PrintWriter(new StringWriter()), error -> fail(error));
+            var definitions = new StringBuilder("var calls = 0;");
+            for (int i = 0; i < 5000; i++) {
+                definitions.append("fun f").append(i).append("(n) { return n + ").append(i).append("; }");
+            }
+            assertTrue(library.run(definitions.toString()));
+
+            var program = engine.compile("print f4999(f1(1));");
+            try (var executor = new LoxExecutor(engine, 64)) {
+                ArrayList<CompletableFuture<LoxResult>> results = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    results.add(executor.submit(program, library));
+                }
+                for (var result : results) {
+                    assertEquals(List.of(), result.get().errors());
+                    assertEquals("5001\n", result.get().output());
+                }
+            }
+        }
+    }
+}
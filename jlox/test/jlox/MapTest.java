@@ -0,0 +1,94 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class MapTest {
+    private static final Token BRACKET = new Token(TokenType.LEFT_BRACKET, "[", 1);
+
+    @Test
+    void storesAndLooksUp() {
+        assertEquals("1\n2\nnil\n2\n", Script.print(
+                "var m = Map(); m[\"a\"] = 1; m.set(\"b\", 2);"
+                + "print m[\"a\"]; print m.get(\"b\"); print m[\"c\"]; print m.size();"));
+    }
+
+    @Test
+    void keysCompareLikeEquality() {
+        assertEquals("number\nstring\ntrue\n3\n", Script.print(
+                "var m = Map(); m[1] = \"number\"; m[\"1\"] = \"string\"; m[true] = true;"
+                + "print m[1]; print m[\"1\"]; print m[1 == 1]; print m.size();"));
+    }
+
+    @Test
+    void overwritesExistingKeys() {
+        assertEquals("2\n1\n", Script.print("var m = Map(); m[\"k\"] = 1; m[\"k\"] = 2; print m[\"k\"]; print m.size();"));
+    }
+
+    @Test
+    void removesKeys() {
+        assertEquals("1\nfalse\nnil\nnil\n0\n", Script.print(
+                "var m = Map(); m[\"k\"] = 1; print m.remove(\"k\"); print m.has(\"k\"); print m[\"k\"];"
+                + "print m.remove(\"k\"); print m.size();"));
+    }
+
+    @Test
+    void listsKeysAndValues() {
+        assertEquals("3\n6\n", Script.print(
+                "var m = Map(); for (var i = 1; i <= 3; i = i + 1) m[i] = i * i;"
+                + "var keys = m.keys(); var sum = 0;"
+                + "for (var i = 0; i < keys.length(); i = i + 1) sum = sum + keys[i];"
+                + "print keys.length(); print sum;"));
+    }
+
+    @Test
+    void rejectsNilKeys() {
+        var script = new Script();
+        assertFalse(script.run("var m = Map(); m[nil] = 1;"));
+        assertEquals(List.of("Map keys can't be nil\n[line 1]"), script.errors);
+    }
+
+    @Test
+    void growsPastItsInitialTable() {
+        assertEquals("500\n999\nnil\n", Script.print(
+                "var m = Map(); for (var i = 0; i < 1000; i = i + 1) m[i] = i;"
+                + "for (var i = 0; i < 1000; i = i + 2) m.remove(i);"
+                + "print m.size(); print m[999]; print m[998];"));
+    }
+
+    // Removal shifts later entries of a probe sequence back into the hole, a
+    // small key range keeps the table full of clusters that wrap around.
+    @Test
+    void randomOperationsMatchAHashMap() {
+        var random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            var map = new LoxMap(new Heap());
+            var expected = new HashMap<Object, Object>();
+            for (int op = 0; op < 5000; op++) {
+                Object key = random.nextBoolean() ? (Object) (double) random.nextInt(64) : "k" + random.nextInt(64);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        map.set(BRACKET, key, (double) op);
+                        expected.put(key, (double) op);
+                        break;
+                    case 1:
+                        assertEquals(expected.remove(key), call(map, "remove", key));
+                        break;
+                    default:
+                        assertEquals(expected.get(key), map.get(BRACKET, key));
+                }
+                assertEquals((double) expected.size(), call(map, "size"));
+            }
+            for (var entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), map.get(BRACKET, entry.getKey()));
+            }
+        }
+    }
+
+    private static Object call(LoxMap map, String method, Object... arguments) {
+        var function = (LoxCallable) map.get(new Token(TokenType.IDENTIFIER, method, 1));
+        return function.call(null, List.of(arguments));
+    }
+}
@@ -0,0 +1,102 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+
+class ParallelParserTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    // Enough declarations for several chunks of at least 2048 tokens.
+    private static String program(int declarations, String body) {
+        var source = new StringBuilder();
+        for (int i = 0; i < declarations; i++) {
+            source.append("fun f").append(i).append("(a) {\n")
+                    .append("  var x = a * ").append(i).append(";\n")
+                    .append("  ").append(body).append("\n")
+                    .append("  if (x > 10) { return x; }\n")
+                    .append("  return a;\n")
+                    .append("}\n")
+                    .append("class C").append(i).append(" { m() { return ").append(i).append("; } }\n")
+                    .append("var v").append(i).append(" = f").append(i).append("(").append(i).append(");\n");
+        }
+        return source.toString();
+    }
+
+    private static List<Token> scan(String source) {
+        var tokens = new ArrayList<Token>();
+        assertEquals(List.of(), Lox.collectErrors(() -> tokens.addAll(new Scanner(source).scanTokens())));
+        return tokens;
+    }
+
+    private static int chunks(String source) {
+        return new ParallelParser(scan(source), false, POOL).split().size();
+    }
+
+    // The errors both parsers reported.
+    private static List<String> assertMatchesSequentialParse(String source) throws IOException {
+        var tokens = scan(source);
+        var expected = new ArrayList<Stmt>();
+        var expectedErrors = Lox.collectErrors(() -> expected.addAll(new Parser(tokens).parse()));
+        var actual = new ArrayList<Stmt>();
+        var actualErrors = Lox.collectErrors(() -> actual.addAll(new ParallelParser(tokens, false, POOL).parse()));
+
+        assertEquals(expectedErrors, actualErrors);
+        assertArrayEquals(serialize(expected), serialize(actual));
+        return actualErrors;
+    }
+
+    private static byte[] serialize(List<Stmt> statements) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            new AstWriter(out, new Interpreter()).write(statements);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void matchesTheSequentialParser() throws IOException {
+        var source = program(300, "print x;");
+        assertTrue(chunks(source) > 2);
+        assertMatchesSequentialParse(source);
+    }
+
+    @Test
+    void reportsErrorsOfAllChunksInOrder() throws IOException {
+        var source = new StringBuilder(program(300, "print x;"));
+        for (var declaration : List.of("fun f250(", "fun f150(", "fun f20(")) {
+            int at = source.indexOf("print", source.indexOf(declaration));
+            source.insert(at, "var = ;");
+        }
+        assertTrue(chunks(source.toString()) > 2);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(3, assertMatchesSequentialParse(source.toString()).size());
+        }
+    }
+
+    @Test
+    void bracesInStringsAndCommentsDontCount() throws IOException {
+        var source = program(300, "print \"{ {\"; // }");
+        assertTrue(chunks(source) > 2);
+        assertMatchesSequentialParse(source);
+    }
+
+    @Test
+    void unbalancedBracesParseSequentially() throws IOException {
+        var unclosed = program(300, "{");
+        assertEquals(1, chunks(unclosed));
+        assertFalse(assertMatchesSequentialParse(unclosed).isEmpty());
+
+        var overclosed = program(300, "}");
+        assertEquals(1, chunks(overclosed));
+        assertFalse(assertMatchesSequentialParse(overclosed).isEmpty());
+    }
+}
@@ -0,0 +1,113 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import jdk.jfr.*;
+import jdk.jfr.consumer.*;
+import org.junit.jupiter.api.*;
+
+class ParallelTest {
+    private static String ones(int length) {
+        return "var ones = Array(" + length + ");"
+                + "for (var i = 0; i < " + length + "; i = i + 1) ones[i] = 1;";
+    }
+
+    @Test
+    void reduceAppliesInitialOnce() {
+        assertEquals("14\n", Script.print(
+                ones(4) + "fun add(a, b) { return a + b; } print parallelReduce(ones, 10, add);"));
+    }
+
+    @Test
+    void reduceOfManyElementsIsExact() {
+        assertEquals("1400\n", Script.print(
+                ones(1000) + "fun add(a, b) { return a + b; } print parallelReduce(ones, 400, add);"));
+    }
+
+    @Test
+    void reduceKeepsTheOrderOfElements() {
+        assertEquals("abcdefgh\n", Script.print(
+                "var letters = Array(8);"
+                + "letters[0] = \"a\"; letters[1] = \"b\"; letters[2] = \"c\"; letters[3] = \"d\";"
+                + "letters[4] = \"e\"; letters[5] = \"f\"; letters[6] = \"g\"; letters[7] = \"h\";"
+                + "fun concat(a, b) { return a + b; } print parallelReduce(letters, \"\", concat);"));
+    }
+
+    @Test
+    void reduceOfAnEmptyArrayIsInitial() {
+        assertEquals("7\n", Script.print(
+                "fun add(a, b) { return a + b; } print parallelReduce(Array(0), 7, add);"));
+    }
+
+    @Test
+    void mapKeepsTheOrderOfElements() {
+        assertEquals("0\n999\n1998\n", Script.print(
+                "var numbers = Array(1000); for (var i = 0; i < 1000; i = i + 1) numbers[i] = i;"
+                + "fun double(n) { return n * 2; } var doubled = parallelMap(numbers, double);"
+                + "print doubled[0]; print doubled[500] - 1; print doubled[999];"));
+    }
+
+    @Test
+    void writesThroughCalledFunctionsAreNotLost() {
+        assertEquals("20000\n", Script.print(
+                ones(20000) + "var total = 0;"
+                + "fun increment(n) { total = total + n; }"
+                + "fun visit(n) { increment(n); }"
+                + "parallelForEach(ones, visit); print total;"));
+    }
+
+    @Test
+    void writesToSharedInstancesAreNotLost() {
+        assertEquals("20000\n", Script.print(
+                ones(20000) + "class Counter { init() { this.count = 0; } }"
+                + "var counter = Counter();"
+                + "fun visit(n) { counter.count = counter.count + n; }"
+                + "parallelForEach(ones, visit); print counter.count;"));
+    }
+
+    private static String sequential(String source, String function) {
+        var script = new Script();
+        assertTrue(script.run(source), script.errors.toString());
+        return Parallel.sequential(new Interpreter(), (LoxFunction) script.context.get(function));
+    }
+
+    @Test
+    void callsOfPureFunctionsRunInParallel() {
+        assertNull(sequential(
+                "fun square(n) { return n * n; }"
+                + "fun fib(n) { if (n < 2) return n; return fib(n - 1) + fib(n - 2); }"
+                + "fun visit(n) { var a = Array(1); var m = Map(); return square(n) + fib(3) + clock() * 0; }", "visit"));
+        assertEquals("20\n", Script.print(
+                ones(10) + "fun square(n) { return n * n; } fun double(n) { return square(n) + square(n); }"
+                + "fun add(a, b) { return a + b; } print parallelReduce(parallelMap(ones, double), 0, add);"));
+    }
+
+    @Test
+    void callsOfFunctionsWithSideEffectsRunSequentially() {
+        assertEquals("assigns 'total' at line 2", sequential(
+                "var total = 0;\nfun increment(n) { total = total + n; }\nfun visit(n) { increment(n); }", "visit"));
+        assertEquals("calls 'task' at line 1", sequential(
+                "fun visit(n) { var task = spawn; task(n); }", "visit"));
+        assertEquals("calls a function it can't look into at line 1", sequential(
+                "fun visit(a) { return a.length(); }", "visit"));
+    }
+
+    @Test
+    void sequentialCallsAreRecorded() throws Exception {
+        var file = Files.createTempFile("parallel", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("jlox.SequentialParallel");
+            recording.start();
+            Script.print(ones(4) + "var total = 0; fun visit(n) { total = total + n; } parallelForEach(ones, visit);");
+            recording.stop();
+            recording.dump(file);
+            var events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+            assertEquals("<fn visit>", events.get(0).getString("function"));
+            assertEquals("assigns 'total' at line 1", events.get(0).getString("reason"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class RuntimeErrorTest {
+    @Test
+    void reportsTheLineItWasRaisedOn() {
+        var error = new RuntimeError(new Token(TokenType.IDENTIFIER, "x", null, 3), "Undefined variable");
+        assertEquals(List.of("Undefined variable\n[line 3]"), Lox.collectErrors(() -> Lox.runtimeError(error)));
+    }
+
+    @Test
+    void reportsErrorsWithoutATokenWithoutALine() {
+        var error = new RuntimeError(null, "Raised by a native");
+        assertEquals(List.of("Raised by a native"), Lox.collectErrors(() -> Lox.runtimeError(error)));
+        assertEquals(0, error.line());
+    }
+}
@@ -0,0 +1,37 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+// A context of its own engine that keeps what its scripts print and report.
+class Script {
+    final LoxContext context;
+    private final StringWriter out = new StringWriter();
+    final ArrayList<String> errors = new ArrayList<>();
+
+    Script() {
+        this(new LoxEngine());
+    }
+
+    Script(LoxEngine engine) {
+        context = engine.createContext(new PrintWriter(out), errors::add);
+    }
+
+    boolean run(String source) {
+        return context.run(source);
+    }
+
+    String output() {
+        return out.toString();
+    }
+
+    // What a script that must not fail prints.
+    static String print(String source) {
+        var script = new Script();
+        script.run(source);
+        assertEquals(List.of(), script.errors);
+        return script.output();
+    }
+}
@@ -0,0 +1,75 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+class ScriptCacheTest {
+    private static final String SOURCE = "fun add(a, b) { var sum = a + b; return sum; }\n"
+            + "class Point { init(x) { this.x = x; } }\n"
+            + "var p = Point(add(1, 2));\n"
+            + "{ var local = \"x = \"; print local + \"\"; print p.x; }\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatItWrote() {
+        var cache = ScriptCache.cacheFile(directory.resolve("script.lox"));
+        var compiler = new Interpreter(new PrintWriter(new StringWriter()));
+        ScriptCache.write(cache, SOURCE, compile(compiler, SOURCE), compiler);
+        assertTrue(Files.exists(cache));
+
+        var output = new StringWriter();
+        var interpreter = new Interpreter(new PrintWriter(output));
+        var statements = ScriptCache.read(cache, SOURCE, interpreter);
+        assertNotNull(statements);
+        interpreter.interpret(statements);
+        assertEquals("x = \n3\n", output.toString());
+    }
+
+    @Test
+    void ignoresEntryForChangedSource() {
+        var cache = write();
+        assertNull(ScriptCache.read(cache, SOURCE + "print 1;", new Interpreter()));
+    }
+
+    @Test
+    void ignoresCorruptEntry() throws IOException {
+        var cache = write();
+        var bytes = Files.readAllBytes(cache);
+        bytes[bytes.length - 20] ^= 1;
+        Files.write(cache, bytes);
+        assertNull(ScriptCache.read(cache, SOURCE, new Interpreter()));
+    }
+
+    @Test
+    void ignoresTruncatedEntry() throws IOException {
+        var cache = write();
+        var bytes = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(ScriptCache.read(cache, SOURCE, new Interpreter()));
+    }
+
+    @Test
+    void ignoresMissingEntry() {
+        assertNull(ScriptCache.read(directory.resolve("missing.loxc"), SOURCE, new Interpreter()));
+    }
+
+    private Path write() {
+        var cache = ScriptCache.cacheFile(directory.resolve("script.lox"));
+        var interpreter = new Interpreter();
+        ScriptCache.write(cache, SOURCE, compile(interpreter, SOURCE), interpreter);
+        return cache;
+    }
+
+    private static List<Stmt> compile(Interpreter interpreter, String source) {
+        var statements = new Parser(new Scanner(source).scanTokens()).parse();
+        new Resolver(interpreter).resolve(statements);
+        return statements;
+    }
+}
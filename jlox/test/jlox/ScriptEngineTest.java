@@ -0,0 +1,70 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import javax.script.*;
+import org.junit.jupiter.api.*;
+
+class ScriptEngineTest {
+    private final ScriptEngine engine = new ScriptEngineManager().getEngineByName("lox");
+    private final StringWriter output = new StringWriter();
+
+    @BeforeEach
+    void captureOutput() {
+        engine.getContext().setWriter(new PrintWriter(output));
+    }
+
+    @Test
+    void isFoundByName() {
+        assertNotNull(engine);
+        assertEquals("Lox", engine.getFactory().getLanguageName());
+    }
+
+    @Test
+    void scriptGlobalsAreBindings() throws ScriptException {
+        engine.put("count", 41);
+        engine.eval("var answer = count + 1; print answer;");
+        assertEquals("42\n", output.toString());
+        assertEquals(42.0, engine.get("answer"));
+    }
+
+    @Test
+    void nativesAreNotWrittenToBindings() throws ScriptException {
+        engine.eval("var a = Array(2); var m = Map(); m[\"k\"] = a.length(); print m[\"k\"]; print clock() > 0;");
+        assertEquals("2\ntrue\n", output.toString());
+        var bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+        assertFalse(bindings.containsKey("clock"));
+        assertFalse(bindings.containsKey("Array"));
+    }
+
+    @Test
+    void bindingsHideNatives() throws ScriptException {
+        engine.put("clock", "not a function");
+        engine.eval("print clock;");
+        engine.eval("Array = 1;", engine.createBindings());
+        engine.eval("print Array(1).length();");
+        assertEquals("not a function\n1\n", output.toString());
+    }
+
+    @Test
+    void compiledScriptRunsAgainstAnyBindings() throws ScriptException {
+        var compiled = ((Compilable) engine).compile("var doubled = n * 2;");
+        var first = engine.createBindings();
+        first.put("n", 2);
+        var second = engine.createBindings();
+        second.put("n", 5);
+        compiled.eval(first);
+        compiled.eval(second);
+        assertEquals(4.0, first.get("doubled"));
+        assertEquals(10.0, second.get("doubled"));
+    }
+
+    @Test
+    void errorsAreScriptExceptions() {
+        var compile = assertThrows(ScriptException.class, () -> engine.eval("print ;"));
+        assertTrue(compile.getMessage().contains("Expected expression"), compile.getMessage());
+        var runtime = assertThrows(ScriptException.class, () -> engine.eval("print missing;"));
+        assertTrue(runtime.getMessage().contains("Undefined variable"), runtime.getMessage());
+    }
+}
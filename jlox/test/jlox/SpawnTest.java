@@ -0,0 +1,97 @@
+package jlox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+
+class SpawnTest {
+    @Test
+    void joinReturnsTheResult() {
+        assertEquals("42\n", Script.print("fun answer() { return 6 * 7; } print spawn(answer).join();"));
+    }
+
+    @Test
+    void spawnedFunctionsSeeTheirClosure() {
+        assertEquals("3\n", Script.print(
+                "fun make(n) { fun inner() { return n + 1; } return inner; }"
+                + "print spawn(make(2)).join();"));
+    }
+
+    @Test
+    void failureIsReportedOnceByJoin() {
+        var script = new Script();
+        assertFalse(script.run("fun bad() {\n return nope;\n}\nvar task = spawn(bad);\nprint \"before\";\ntask.join();"));
+        assertEquals("before\n", script.output());
+        assertEquals(List.of("Spawned function failed at line 2: Undefined variable\n[line 6]"), script.errors);
+    }
+
+    @Test
+    void unjoinedFailureIsReported() throws InterruptedException {
+        var script = new Script();
+        boolean succeeded = script.run("fun bad() {\n return nope;\n}\nspawn(bad);");
+        // A run reports the tasks that failed by the time it ends.
+        for (int i = 0; i < 500 && succeeded; i++) {
+            Thread.sleep(10);
+            succeeded = script.run("");
+        }
+        assertFalse(succeeded);
+        assertEquals(List.of("Spawned function failed: Undefined variable\n[line 2]"), script.errors);
+    }
+
+    @Test
+    void joinedFailureIsOnlyReportedByJoin() {
+        var script = new Script();
+        assertFalse(script.run("fun bad() { return nope; }\nvar task = spawn(bad);\ntask.join();"));
+        assertTrue(script.run(""));
+        assertEquals(1, script.errors.size());
+    }
+
+    @Test
+    void onlySpawnsFunctionsWithoutParameters() {
+        var script = new Script();
+        assertFalse(script.run("fun f(a) {} spawn(f);"));
+        assertEquals(1, script.errors.size());
+        assertTrue(script.errors.get(0).startsWith("Can only spawn functions without parameters"));
+    }
+
+    @Test
+    void channelCarriesValuesInOrder() {
+        assertEquals("0\n1\n2\n3\n4\nnil\ndone\n", Script.print(
+                "var ch = channel(2);"
+                + "fun produce() { for (var i = 0; i < 5; i = i + 1) ch.send(i); ch.close(); return \"done\"; }"
+                + "var producer = spawn(produce);"
+                + "for (var i = 0; i < 6; i = i + 1) print ch.receive();"
+                + "print producer.join();"));
+    }
+
+    @Test
+    void sendingOnAClosedChannelFails() {
+        var script = new Script();
+        assertFalse(script.run("var ch = channel(1); ch.close(); ch.send(1);"));
+        assertEquals(List.of("Can't send on a closed channel\n[line 1]"), script.errors);
+    }
+
+    @Test
+    void workersShareInstances() {
+        assertEquals("400\n", Script.print(
+                "class Counter { init() { this.count = 0; } }"
+                + "var counter = Counter();"
+                + "var done = channel(4);"
+                + "fun work() { for (var i = 0; i < 100; i = i + 1) { var c = counter; } done.send(100); }"
+                + "for (var i = 0; i < 4; i = i + 1) spawn(work);"
+                + "for (var i = 0; i < 4; i = i + 1) counter.count = counter.count + done.receive();"
+                + "print counter.count;"));
+    }
+
+    @Test
+    void onlyTheSpawningInterpretersHeapIsShared() {
+        var spawner = new Interpreter();
+        var other = new Interpreter();
+        var statements = new Parser(new Scanner("fun f() {} spawn(f).join();").scanTokens()).parse();
+        new Resolver(spawner).resolve(statements);
+        spawner.interpret(statements);
+        assertTrue(spawner.heap().isShared());
+        assertFalse(other.heap().isShared());
+    }
+}